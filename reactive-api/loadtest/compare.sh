@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+#
+# Compares the servlet (Tomcat + JDBC) and reactive (Netty + R2DBC) delivery
+# read paths at high concurrency, against the same embedded H2 database.
+#
+# Prerequisites: hey (https://github.com/rakyll/hey), curl and jq.
+#
+#   1. From the repository root, with rate limiting off so a single test
+#      user is not throttled:
+#        mvn spring-boot:run -Dspring-boot.run.profiles=local-replica \
+#            -Dspring-boot.run.arguments=--rate-limit.enabled=false
+#   2. From reactive-api/:
+#        mvn spring-boot:run -Dspring-boot.run.profiles=h2
+#   3. From reactive-api/:
+#        ./loadtest/compare.sh
+#
+# With the H2 profiles the servlet API reads the file in-process while the
+# reactive API reaches it over TCP through AUTO_SERVER, which penalises the
+# reactive side. For a like-for-like run, point both at the same MySQL
+# (spring.datasource.url and spring.r2dbc.url) instead.
+#
+# Each scenario is written as raw per-request CSV (hey -o csv) plus a
+# summary line in $OUT/summary.csv, so runs can be diffed as numbers.
+
+set -euo pipefail
+
+SERVLET_URL=${SERVLET_URL:-http://localhost:8080}
+REACTIVE_URL=${REACTIVE_URL:-http://localhost:8081}
+CONCURRENCY=${CONCURRENCY:-500}
+DURATION=${DURATION:-30s}
+DELIVERIES=${DELIVERIES:-500}
+PAGE_SIZE=${PAGE_SIZE:-50}
+OUT=${OUT:-target/loadtest}
+
+mkdir -p "$OUT"
+
+email="loadtest-$(date +%s)@example.com"
+token=$(curl -sf -X POST "$SERVLET_URL/api/auth/register" \
+    -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$email\",\"password\":\"loadtest\",\"fullName\":\"Load Test\",\"phoneNumber\":\"9000000000\",\"role\":\"BUSINESS_USER\"}" \
+    | jq -r .token)
+
+# Seed deliveries for this user through the bulk endpoint
+rows=$(jq -n --argjson n "$DELIVERIES" '[range($n) | {
+    pickupAddress: "MG Road, Bengaluru", dropAddress: "Park Street, Kolkata",
+    customerName: "Customer \(.)", customerPhone: "9123456789", weight: 5, priority: "MEDIUM"}]')
+curl -sf -X POST "$SERVLET_URL/api/deliveries/bulk" \
+    -H 'Content-Type: application/json' -H "Authorization: Bearer $token" \
+    -d "$rows" > /dev/null
+
+delivery_id=$(curl -sf "$SERVLET_URL/api/deliveries?size=1" -H "Authorization: Bearer $token" | jq -r '.[0].id')
+
+echo "scenario,requests_per_sec,avg_ms,p50_ms,p99_ms,errors" > "$OUT/summary.csv"
+
+run() {
+    local name=$1 url=$2
+    echo "== $name: $url (c=$CONCURRENCY, $DURATION)"
+    # Warm up the JIT and connection pools before measuring
+    hey -z 5s -c "$CONCURRENCY" -H "Authorization: Bearer $token" "$url" > /dev/null
+    hey -z "$DURATION" -c "$CONCURRENCY" -H "Authorization: Bearer $token" -o csv "$url" > "$OUT/$name.csv"
+
+    # hey CSV columns: response-time,DNS+dialup,DNS,Request-write,Response-delay,Response-read,status-code,offset
+    # Latencies are sorted by sort(1) so the awk below needs nothing beyond POSIX
+    awk -F, 'NR > 1 { print $1 * 1000, ($7 == 200 ? 0 : 1), $8 }' "$OUT/$name.csv" \
+        | sort -n -k1,1 \
+        | awk -v name="$name" '{
+                n++; t[n] = $1; sum += $1; errors += $2
+                if ($3 > last) last = $3
+            }
+            END {
+                p50 = int(n * 0.5); if (p50 < 1) p50 = 1
+                p99 = int(n * 0.99); if (p99 < 1) p99 = 1
+                printf "%s,%.1f,%.2f,%.2f,%.2f,%d\n", name, n / last, sum / n, t[p50], t[p99], errors
+            }' | tee -a "$OUT/summary.csv"
+}
+
+run servlet-list "$SERVLET_URL/api/deliveries?size=$PAGE_SIZE"
+run reactive-list "$REACTIVE_URL/api/deliveries?size=$PAGE_SIZE"
+run servlet-lookup "$SERVLET_URL/api/deliveries/$delivery_id"
+run reactive-lookup "$REACTIVE_URL/api/deliveries/$delivery_id"
+
+echo "Summary written to $OUT/summary.csv"
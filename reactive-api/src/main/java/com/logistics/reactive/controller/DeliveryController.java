@@ -0,0 +1,59 @@
+package com.logistics.reactive.controller;
+
+import com.logistics.reactive.dto.DeliveryDto;
+import com.logistics.reactive.dto.DeliveryPage;
+import com.logistics.reactive.security.AuthenticatedUser;
+import com.logistics.reactive.service.DeliveryReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only mirror of the backend's GET /api/deliveries endpoints: same
+ * paths, parameters, X-Next-Cursor header and response bodies.
+ */
+@RestController
+@RequestMapping("/api/deliveries")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"}, exposedHeaders = DeliveryController.NEXT_CURSOR_HEADER)
+public class DeliveryController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Autowired
+    private DeliveryReadService deliveryReadService;
+
+    @GetMapping("/{id}")
+    public Mono<DeliveryDto> getDelivery(@PathVariable Long id) {
+        return deliveryReadService.getDeliveryById(id);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DeliveryDto>>> getAllDeliveries(
+            @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (currentUser.hasRole(AuthenticatedUser.ADMIN)) {
+            // Unpaged, so rows are streamed to the client as they arrive
+            return Mono.just(ResponseEntity.ok(deliveryReadService.getPendingDeliveries()));
+        }
+
+        Mono<DeliveryPage> page;
+        if (currentUser.hasRole(AuthenticatedUser.BUSINESS_USER)) {
+            page = deliveryReadService.getDeliveriesByBusinessUser(currentUser.getId(), cursor, size);
+        } else if (currentUser.hasRole(AuthenticatedUser.DRIVER)) {
+            page = deliveryReadService.getDeliveriesByDriver(currentUser.getId(), cursor, size);
+        } else {
+            return Mono.just(ResponseEntity.ok(Flux.empty()));
+        }
+
+        return page.map(result -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (result.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, result.getNextCursor());
+            }
+            return response.body(Flux.fromIterable(result.getItems()));
+        });
+    }
+}
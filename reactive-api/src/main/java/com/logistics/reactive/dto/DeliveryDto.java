@@ -0,0 +1,36 @@
+package com.logistics.reactive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Same JSON shape as the backend's DeliveryDto for read responses, so
+ * clients can switch between the servlet and reactive endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryDto {
+
+    private Long id;
+    private String pickupAddress;
+    private String dropAddress;
+    private String customerName;
+    private String customerPhone;
+    private BigDecimal weight;
+    private String priority;
+    private String notes;
+    private String status;
+    private BigDecimal estimatedKm;
+    private BigDecimal estimatedCost;
+    private BigDecimal actualKm;
+    private BigDecimal actualCost;
+    private UserDto businessUser;
+    private UserDto driver;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.logistics.reactive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryPage {
+
+    private List<DeliveryDto> items;
+    // Null on the last page
+    private String nextCursor;
+}
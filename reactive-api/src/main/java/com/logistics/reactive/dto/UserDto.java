@@ -0,0 +1,18 @@
+package com.logistics.reactive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The subset of the backend's UserDto that delivery responses carry.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDto {
+
+    private Long id;
+    private String email;
+    private String fullName;
+}
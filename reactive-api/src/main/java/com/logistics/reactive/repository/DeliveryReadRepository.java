@@ -0,0 +1,117 @@
+package com.logistics.reactive.repository;
+
+import com.logistics.reactive.dto.DeliveryDto;
+import com.logistics.reactive.dto.UserDto;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The backend's delivery read queries over R2DBC, against the same schema
+ * (Flyway migrations in the backend). Rows stream straight into DTOs; lookups
+ * and listings include deliveries_archive exactly as the servlet path does.
+ */
+@Repository
+public class DeliveryReadRepository {
+
+    private static final String HOT = "deliveries";
+    private static final String ARCHIVE = "deliveries_archive";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<DeliveryDto> findById(Long id) {
+        return findById(HOT, id).switchIfEmpty(Mono.defer(() -> findById(ARCHIVE, id)));
+    }
+
+    public Flux<DeliveryDto> findPendingUnassigned() {
+        return databaseClient.sql(select(HOT) + "where d.status = 'PENDING' and d.driver_id is null")
+                .map(DeliveryReadRepository::mapDelivery)
+                .all();
+    }
+
+    /**
+     * Keyset page over hot and archived deliveries together, ordered by
+     * (createdAt, id) descending. A null createdAt starts from the newest.
+     */
+    public Flux<DeliveryDto> findPageByBusinessUser(Long userId, LocalDateTime createdAt, Long id, int limit) {
+        return findPage("d.business_user_id", userId, createdAt, id, limit);
+    }
+
+    public Flux<DeliveryDto> findPageByDriver(Long driverId, LocalDateTime createdAt, Long id, int limit) {
+        return findPage("d.driver_id", driverId, createdAt, id, limit);
+    }
+
+    private Mono<DeliveryDto> findById(String table, Long id) {
+        return databaseClient.sql(select(table) + "where d.id = :id")
+                .bind("id", id)
+                .map(DeliveryReadRepository::mapDelivery)
+                .one();
+    }
+
+    private Flux<DeliveryDto> findPage(String ownerColumn, Long ownerId, LocalDateTime createdAt, Long id, int limit) {
+        String where = "where " + ownerColumn + " = :ownerId ";
+        if (createdAt != null) {
+            where += "and (d.created_at < :createdAt or (d.created_at = :createdAt and d.id < :id)) ";
+        }
+        // Each branch is limited on its own index before the merge
+        String branch = "order by d.created_at desc, d.id desc limit :limit";
+        String sql = "select * from ((" + select(HOT) + where + branch + ") union all (" +
+                select(ARCHIVE) + where + branch + ")) page order by created_at desc, id desc limit :limit";
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("ownerId", ownerId)
+                .bind("limit", limit);
+        if (createdAt != null) {
+            spec = spec.bind("createdAt", createdAt).bind("id", id);
+        }
+        return spec.map(DeliveryReadRepository::mapDelivery).all();
+    }
+
+    private static String select(String table) {
+        return "select d.id, d.pickup_address, d.drop_address, d.customer_name, d.customer_phone, d.weight, " +
+                "d.priority, d.notes, d.status, d.estimated_km, d.estimated_cost, d.actual_km, d.actual_cost, " +
+                "d.created_at, d.updated_at, b.id as business_user_id, b.email as business_user_email, " +
+                "b.full_name as business_user_full_name, dr.id as driver_id, dr.email as driver_email, " +
+                "dr.full_name as driver_full_name " +
+                "from " + table + " d join users b on b.id = d.business_user_id " +
+                "left join users dr on dr.id = d.driver_id ";
+    }
+
+    private static DeliveryDto mapDelivery(Row row) {
+        UserDto businessUser = new UserDto(
+                row.get("business_user_id", Long.class),
+                row.get("business_user_email", String.class),
+                row.get("business_user_full_name", String.class));
+
+        Long driverId = row.get("driver_id", Long.class);
+        UserDto driver = driverId != null
+                ? new UserDto(driverId, row.get("driver_email", String.class), row.get("driver_full_name", String.class))
+                : null;
+
+        return new DeliveryDto(
+                row.get("id", Long.class),
+                row.get("pickup_address", String.class),
+                row.get("drop_address", String.class),
+                row.get("customer_name", String.class),
+                row.get("customer_phone", String.class),
+                row.get("weight", BigDecimal.class),
+                row.get("priority", String.class),
+                row.get("notes", String.class),
+                row.get("status", String.class),
+                row.get("estimated_km", BigDecimal.class),
+                row.get("estimated_cost", BigDecimal.class),
+                row.get("actual_km", BigDecimal.class),
+                row.get("actual_cost", BigDecimal.class),
+                businessUser,
+                driver,
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,21 @@
+package com.logistics.reactive.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public class UserReadRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<Boolean> isActive(Long userId) {
+        return databaseClient.sql("select count(*) from users where id = :id and is_active = true")
+                .bind("id", userId)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+}
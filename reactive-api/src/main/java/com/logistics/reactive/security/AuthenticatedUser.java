@@ -0,0 +1,27 @@
+package com.logistics.reactive.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Caller resolved from the JWT by {@link JwtAuthenticationWebFilter} and
+ * stored as an exchange attribute under {@link #ATTRIBUTE}.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser {
+
+    public static final String ATTRIBUTE = "authenticatedUser";
+
+    public static final String ADMIN = "ADMIN";
+    public static final String BUSINESS_USER = "BUSINESS_USER";
+    public static final String DRIVER = "DRIVER";
+
+    private final Long id;
+    private final String email;
+    private final String role;
+
+    public boolean hasRole(String role) {
+        return this.role.equals(role);
+    }
+}
@@ -0,0 +1,125 @@
+package com.logistics.reactive.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logistics.reactive.repository.UserReadRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of the backend's JwtAuthenticationFilter. API
+ * requests without a valid token for an active user get 401.
+ *
+ * Verified tokens are cached for jwt.cache.ttl-seconds. Deactivations in the
+ * backend cannot evict this process's cache, so a deactivated user keeps
+ * access for at most that long.
+ */
+@Component
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private static final String API_PATH = "/api/";
+
+    @Autowired
+    private JwtTokenVerifier tokenVerifier;
+
+    @Autowired
+    private UserReadRepository userReadRepository;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.cache.ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    private Cache<String, CachedUser> tokenCache;
+
+    @PostConstruct
+    public void init() {
+        tokenCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith(API_PATH)) {
+            return chain.filter(exchange);
+        }
+
+        String jwt = getJwtFromRequest(exchange);
+        if (jwt == null) {
+            return unauthorized(exchange);
+        }
+
+        // Branch on the user before running the chain: the chain itself completes
+        // empty, so switchIfEmpty after it would answer 401 to every request
+        return resolveUser(jwt)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(user -> {
+                    if (user.isEmpty()) {
+                        return unauthorized(exchange);
+                    }
+                    exchange.getAttributes().put(AuthenticatedUser.ATTRIBUTE, user.get());
+                    return chain.filter(exchange);
+                });
+    }
+
+    private Mono<AuthenticatedUser> resolveUser(String jwt) {
+        CachedUser cached = tokenCache.getIfPresent(jwt);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return Mono.just(cached.user);
+        }
+
+        Claims claims = tokenVerifier.parseToken(jwt);
+        AuthenticatedUser user = claims != null ? tokenVerifier.getUserFromClaims(claims) : null;
+        if (user == null) {
+            return Mono.empty();
+        }
+
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        return userReadRepository.isActive(user.getId())
+                .filter(Boolean::booleanValue)
+                .map(active -> {
+                    tokenCache.put(jwt, new CachedUser(user, expiresAt));
+                    return user;
+                });
+    }
+
+    private static String getJwtFromRequest(ServerWebExchange exchange) {
+        String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
+    private static final class CachedUser {
+        private final AuthenticatedUser user;
+        private final long expiresAt;
+
+        private CachedUser(AuthenticatedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
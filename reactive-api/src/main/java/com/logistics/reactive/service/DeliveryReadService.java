@@ -0,0 +1,84 @@
+package com.logistics.reactive.service;
+
+import com.logistics.reactive.dto.DeliveryDto;
+import com.logistics.reactive.dto.DeliveryPage;
+import com.logistics.reactive.exception.ResourceNotFoundException;
+import com.logistics.reactive.repository.DeliveryReadRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class DeliveryReadService {
+
+    @Autowired
+    private DeliveryReadRepository deliveryReadRepository;
+
+    @Value("${delivery.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${delivery.page.max-size:200}")
+    private int maxPageSize;
+
+    public Mono<DeliveryDto> getDeliveryById(Long id) {
+        return deliveryReadRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Delivery not found with id: " + id)));
+    }
+
+    public Flux<DeliveryDto> getPendingDeliveries() {
+        return deliveryReadRepository.findPendingUnassigned();
+    }
+
+    public Mono<DeliveryPage> getDeliveriesByBusinessUser(Long businessUserId, String cursor, Integer size) {
+        return Mono.fromCallable(() -> resolvePageSize(size))
+                .flatMap(pageSize -> {
+                    DeliveryCursor after = cursor != null ? DeliveryCursor.decode(cursor) : null;
+                    return deliveryReadRepository.findPageByBusinessUser(businessUserId,
+                                    after != null ? after.getCreatedAt() : null,
+                                    after != null ? after.getId() : null,
+                                    pageSize + 1)
+                            .collectList()
+                            .map(deliveries -> toPage(deliveries, pageSize));
+                });
+    }
+
+    public Mono<DeliveryPage> getDeliveriesByDriver(Long driverId, String cursor, Integer size) {
+        return Mono.fromCallable(() -> resolvePageSize(size))
+                .flatMap(pageSize -> {
+                    DeliveryCursor after = cursor != null ? DeliveryCursor.decode(cursor) : null;
+                    return deliveryReadRepository.findPageByDriver(driverId,
+                                    after != null ? after.getCreatedAt() : null,
+                                    after != null ? after.getId() : null,
+                                    pageSize + 1)
+                            .collectList()
+                            .map(deliveries -> toPage(deliveries, pageSize));
+                });
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    // Callers fetch one extra row so we know whether another page exists
+    private DeliveryPage toPage(List<DeliveryDto> deliveries, int pageSize) {
+        boolean hasMore = deliveries.size() > pageSize;
+        List<DeliveryDto> items = hasMore ? deliveries.subList(0, pageSize) : deliveries;
+
+        String nextCursor = null;
+        if (hasMore) {
+            DeliveryDto last = items.get(items.size() - 1);
+            nextCursor = new DeliveryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new DeliveryPage(items, nextCursor);
+    }
+}
@@ -0,0 +1,57 @@
+package com.logistics.backend.benchmark;
+
+import com.logistics.backend.entity.Delivery;
+import com.logistics.backend.entity.DeliveryPriority;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Shared sample data for the benchmarks. Values are shaped like production
+ * rows so serialization and pricing see realistic sizes.
+ */
+public final class BenchmarkFixtures {
+
+    // HS512 needs at least 64 bytes of key material
+    public static final String JWT_SECRET =
+            "benchmark-secret-key-benchmark-secret-key-benchmark-secret-key-benchmark";
+
+    private BenchmarkFixtures() {
+    }
+
+    public static User user(Long id, UserRole role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setFullName("User " + id);
+        user.setPhoneNumber("98765" + String.format("%05d", id % 100000));
+        user.setRole(role);
+        user.setIsActive(true);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    public static Delivery delivery(Long id) {
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setBusinessUser(user(1L, UserRole.BUSINESS_USER));
+        delivery.setDriver(id % 2 == 0 ? user(2L, UserRole.DRIVER) : null);
+        delivery.setPickupAddress("12 MG Road, Bengaluru, Karnataka 560001");
+        delivery.setDropAddress("45 Park Street, Kolkata, West Bengal 700016");
+        delivery.setCustomerName("Customer " + id);
+        delivery.setCustomerPhone("9123456789");
+        delivery.setWeight(new BigDecimal("12.50"));
+        delivery.setPriority(DeliveryPriority.values()[(int) (id % DeliveryPriority.values().length)]);
+        delivery.setNotes("Leave at reception");
+        delivery.setStatus(id % 2 == 0 ? DeliveryStatus.ACCEPTED : DeliveryStatus.PENDING);
+        delivery.setEstimatedKm(new BigDecimal("1870.40"));
+        delivery.setEstimatedCost(new BigDecimal("9527.00"));
+        delivery.setCreatedAt(LocalDateTime.now());
+        delivery.setUpdatedAt(LocalDateTime.now());
+        return delivery;
+    }
+}
@@ -0,0 +1,90 @@
+package com.logistics.backend.benchmark;
+
+import com.logistics.backend.dto.NearbyDriverDto;
+import com.logistics.backend.geo.DriverSpatialIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-driver and radius queries against 50k drivers, at the production
+ * cell size and a finer one. "metro" packs every driver into one city, the
+ * dense worst case for cells; "country" spreads them over India. Query points
+ * are drawn from the same area so most queries find drivers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DriverSpatialIndexBenchmark {
+
+    private static final int DRIVERS = 50_000;
+
+    private static final int QUERY_POINTS = 1024;
+
+    @Param({"metro", "country"})
+    private String spread;
+
+    @Param({"0.05", "0.01"})
+    private double cellSizeDeg;
+
+    private DriverSpatialIndex index;
+
+    private double[][] queries;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new DriverSpatialIndex();
+        ReflectionTestUtils.setField(index, "cellSizeDeg", cellSizeDeg);
+        ReflectionTestUtils.setField(index, "maxAgeMs", 600_000L);
+        index.init();
+
+        // Bengaluru, about 40 km across; or India, about 2,500 km across
+        double centerLat = "metro".equals(spread) ? 12.97 : 21.0;
+        double centerLng = "metro".equals(spread) ? 77.59 : 78.0;
+        double span = "metro".equals(spread) ? 0.2 : 11.0;
+
+        Random random = new Random(7);
+        long now = System.currentTimeMillis();
+        for (long id = 1; id <= DRIVERS; id++) {
+            index.update(id, centerLat + (random.nextDouble() * 2 - 1) * span,
+                    centerLng + (random.nextDouble() * 2 - 1) * span, now);
+        }
+        queries = new double[QUERY_POINTS][];
+        for (int i = 0; i < QUERY_POINTS; i++) {
+            queries[i] = new double[]{
+                    centerLat + (random.nextDouble() * 2 - 1) * span,
+                    centerLng + (random.nextDouble() * 2 - 1) * span};
+        }
+    }
+
+    @Benchmark
+    public List<NearbyDriverDto> nearest10() {
+        double[] point = nextQuery();
+        return index.nearest(point[0], point[1], 10, 25);
+    }
+
+    @Benchmark
+    public List<NearbyDriverDto> withinRadius5Km() {
+        double[] point = nextQuery();
+        return index.withinRadius(point[0], point[1], 5, 100);
+    }
+
+    @Benchmark
+    public void update() {
+        double[] point = nextQuery();
+        index.update((long) (next % DRIVERS) + 1, point[0], point[1], System.currentTimeMillis());
+    }
+
+    private double[] nextQuery() {
+        next = (next + 1) & (QUERY_POINTS - 1);
+        return queries[next];
+    }
+}
@@ -0,0 +1,94 @@
+package com.logistics.backend.benchmark;
+
+import com.logistics.backend.LogisticsApplication;
+import com.logistics.backend.dto.RegisterRequest;
+import com.logistics.backend.dto.UserDto;
+import com.logistics.backend.security.JwtAuthenticationFilter;
+import com.logistics.backend.security.JwtTokenProvider;
+import com.logistics.backend.security.TokenCache;
+import com.logistics.backend.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a bearer-token request through the JWT filter of a full application
+ * context backed by in-memory H2 (the "bench" profile). The uncached case
+ * includes signature verification and the user lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private JwtAuthenticationFilter filter;
+
+    private TokenCache tokenCache;
+
+    private String email;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LogisticsApplication.class)
+                .profiles("bench")
+                .run();
+        filter = context.getBean(JwtAuthenticationFilter.class);
+        tokenCache = context.getBean(TokenCache.class);
+
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("bench-driver@example.com");
+        request.setPassword("benchmark");
+        request.setFullName("Bench Driver");
+        request.setPhoneNumber("9000000000");
+        request.setRole("DRIVER");
+        String encodedPassword = context.getBean(PasswordEncoder.class).encode(request.getPassword());
+        UserDto user = context.getBean(UserService.class).registerUser(request, encodedPassword);
+
+        email = user.getEmail();
+        token = context.getBean(JwtTokenProvider.class).generateToken(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Authentication cachedToken() throws ServletException, IOException {
+        return authenticate();
+    }
+
+    @Benchmark
+    public Authentication uncachedToken() throws ServletException, IOException {
+        tokenCache.evictUser(email);
+        return authenticate();
+    }
+
+    private Authentication authenticate() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/deliveries");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.logistics.backend.benchmark;
+
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.security.AuthenticatedUser;
+import com.logistics.backend.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", BenchmarkFixtures.JWT_SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 86400000L);
+        tokenProvider.init();
+
+        token = tokenProvider.generateToken(42L, "driver@example.com", UserRole.DRIVER);
+    }
+
+    @Benchmark
+    public String generate() {
+        return tokenProvider.generateToken(42L, "driver@example.com", UserRole.DRIVER);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser parse() {
+        Claims claims = tokenProvider.parseToken(token);
+        return tokenProvider.getUserFromClaims(claims);
+    }
+}
@@ -0,0 +1,103 @@
+package com.logistics.backend.benchmark;
+
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.ratelimit.RateLimitProperties;
+import com.logistics.backend.ratelimit.RateLimitScope;
+import com.logistics.backend.ratelimit.RateLimiter;
+import com.logistics.backend.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimiter.tryAcquire on the production rule layout. Refill rates are
+ * raised so the accepting benchmarks never run dry; the cost of a call does
+ * not depend on the rate. "userBuckets" spreads 10k users over the stripes,
+ * "roleBucket" has every thread on the one DRIVER bucket, and
+ * "rejectedWithRefund" is turned away by the second rule after taking a
+ * token from the first, the path of a client hammering bulk uploads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(4)
+public class RateLimiterBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private static final double UNLIMITED = 1_000_000_000;
+
+    private RateLimiter limiter;
+
+    private AuthenticatedUser[] users;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().add(rule("deliveries-bulk", "POST", "/api/deliveries/bulk/**", 5, UNLIMITED,
+                RateLimitScope.USER));
+        // Empty after the first call and next to never refilled
+        properties.getRules().add(rule("deliveries-write", "POST", "/api/deliveries/**", 1, 0.001,
+                RateLimitScope.USER));
+        properties.getRules().add(rule("deliveries-read", "GET", "/api/deliveries/**", 100, UNLIMITED,
+                RateLimitScope.USER));
+        RateLimitProperties.Rule fleet = rule("driver-locations", "POST", "/api/locations", 20000, UNLIMITED,
+                RateLimitScope.ROLE);
+        fleet.setRoles(EnumSet.of(UserRole.DRIVER));
+        properties.getRules().add(fleet);
+
+        limiter = new RateLimiter();
+        ReflectionTestUtils.setField(limiter, "properties", properties);
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        limiter.init();
+
+        users = new AuthenticatedUser[USERS];
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < USERS; i++) {
+            users[i] = new AuthenticatedUser((long) i + 1, "user" + i + "@example.com", UserRole.DRIVER, expiresAt);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+    }
+
+    @Benchmark
+    public long userBuckets(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % USERS;
+        return limiter.tryAcquire("GET", "/api/deliveries", users[cursor.next], "10.0.0.1");
+    }
+
+    @Benchmark
+    public long roleBucket(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % USERS;
+        return limiter.tryAcquire("POST", "/api/locations", users[cursor.next], "10.0.0.1");
+    }
+
+    @Benchmark
+    public long rejectedWithRefund(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % USERS;
+        return limiter.tryAcquire("POST", "/api/deliveries/bulk/upload", users[cursor.next], "10.0.0.1");
+    }
+
+    private static RateLimitProperties.Rule rule(String name, String method, String path, long capacity,
+                                                 double refillPerSecond, RateLimitScope scope) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName(name);
+        rule.setMethod(method);
+        rule.setPath(path);
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(refillPerSecond);
+        rule.setScope(scope);
+        return rule;
+    }
+}
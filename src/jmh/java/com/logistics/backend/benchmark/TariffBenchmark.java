@@ -0,0 +1,55 @@
+package com.logistics.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.backend.entity.DeliveryPriority;
+import com.logistics.backend.tariff.CompiledTariff;
+import com.logistics.backend.tariff.RateCardSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices a delivery against the default rate card shipped in tariffs.json.
+ * This is the path that replaced DeliveryService.calculateCost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TariffBenchmark {
+
+    @Param({"LOW", "MEDIUM", "HIGH"})
+    private DeliveryPriority priority;
+
+    private CompiledTariff tariff;
+
+    private BigDecimal weight;
+
+    private BigDecimal distanceKm;
+
+    @Setup
+    public void setUp() throws IOException {
+        RateCardSet rateCards;
+        try (InputStream input = TariffBenchmark.class.getResourceAsStream("/tariffs.json")) {
+            rateCards = new ObjectMapper().readValue(input, RateCardSet.class);
+        }
+        tariff = CompiledTariff.compile(rateCards.getDefaultCard());
+        weight = new BigDecimal("12.50");
+        distanceKm = new BigDecimal("1870.40");
+    }
+
+    @Benchmark
+    public BigDecimal price() {
+        return tariff.price(weight, priority, distanceKm);
+    }
+
+    @Benchmark
+    public BigDecimal priceWithoutDistance() {
+        return tariff.price(weight, priority, null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.benchmark.BenchmarkFixtures;
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.entity.Delivery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lives in the service package because convertToDto is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ConvertToDtoBenchmark {
+
+    private DeliveryService deliveryService;
+
+    private Delivery assigned;
+
+    private Delivery unassigned;
+
+    @Setup
+    public void setUp() {
+        // convertToDto touches no collaborators, so an unwired instance is enough
+        deliveryService = new DeliveryService();
+        assigned = BenchmarkFixtures.delivery(2L);
+        unassigned = BenchmarkFixtures.delivery(1L);
+    }
+
+    @Benchmark
+    public DeliveryDto convertAssigned() {
+        return deliveryService.convertToDto(assigned);
+    }
+
+    @Benchmark
+    public DeliveryDto convertUnassigned() {
+        return deliveryService.convertToDto(unassigned);
+    }
+}
@@ -0,0 +1,51 @@
+package com.logistics.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.logistics.backend.benchmark.BenchmarkFixtures;
+import com.logistics.backend.dto.DeliveryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes delivery lists with the same ObjectMapper configuration Spring
+ * Boot uses for the REST controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DeliveryJsonBenchmark {
+
+    @Param({"1", "50", "200"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private List<DeliveryDto> deliveries;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, DeliveryDto.class));
+
+        DeliveryService deliveryService = new DeliveryService();
+        deliveries = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            deliveries.add(deliveryService.convertToDto(BenchmarkFixtures.delivery(id)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(deliveries);
+    }
+}
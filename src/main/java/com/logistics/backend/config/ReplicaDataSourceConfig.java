@@ -0,0 +1,124 @@
+package com.logistics.backend.config;
+
+import com.logistics.backend.datasource.ReadYourWritesInterceptor;
+import com.logistics.backend.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read replica routing, active only when replica.datasource.urls is set.
+ * Without it Boot's single auto-configured DataSource is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica.datasource", name = "urls")
+public class ReplicaDataSourceConfig {
+
+    @Value("${replica.datasource.urls}")
+    private String[] replicaUrls;
+
+    @Value("${replica.datasource.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${replica.datasource.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${replica.datasource.maximum-pool-size:20}")
+    private int replicaPoolSize;
+
+    @Value("${replica.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${replica.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    @Value("${replica.read-your-writes-max-users:100000}")
+    private long readYourWritesMaxUsers;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            DataSourceProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("logistics-replica-" + i);
+            replica.setJdbcUrl(replicaUrls[i].trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, Duration.ofMillis(maxLagMs));
+    }
+
+    // The registry depends on every DataSource bean, so replica metrics are bound
+    // once it exists instead of being injected into the routing data source
+    @Bean
+    public MeterBinder replicaMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> {
+            // Replica pools are not beans, so Boot does not bind their metrics
+            for (DataSource replica : replicaRoutingDataSource.getReplicaDataSources()) {
+                if (replica instanceof HikariDataSource) {
+                    ((HikariDataSource) replica).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            }
+            Gauge.builder("datasource.replicas.healthy", replicaRoutingDataSource,
+                            ReplicaRoutingDataSource::getHealthyReplicaCount)
+                    .description("Replicas currently receiving read-only traffic")
+                    .register(registry);
+            for (int i = 0; i < replicaUrls.length; i++) {
+                int index = i;
+                Gauge.builder("datasource.replicas.lag", replicaRoutingDataSource,
+                                routing -> routing.getReplicaLagMillis(index))
+                        .tag("pool", "logistics-replica-" + i)
+                        .baseUnit("milliseconds")
+                        .description("Replica lag at the last health check, -1 before the first")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer() {
+        ReadYourWritesInterceptor interceptor =
+                new ReadYourWritesInterceptor(Duration.ofMillis(readYourWritesMs), readYourWritesMaxUsers);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
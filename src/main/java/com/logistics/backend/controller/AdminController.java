@@ -0,0 +1,43 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.dto.DeliveryStats;
+import com.logistics.backend.dto.DispatchStats;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.security.AuthenticatedUser;
+import com.logistics.backend.service.DeliveryStatsService;
+import com.logistics.backend.service.DispatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class AdminController {
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private DeliveryStatsService deliveryStatsService;
+
+    @GetMapping("/dispatch")
+    public ResponseEntity<DispatchStats> getDispatchStats(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.hasRole(UserRole.ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(dispatchService.getStats());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<DeliveryStats> getDeliveryStats(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (!currentUser.hasRole(UserRole.ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(deliveryStatsService.getStats());
+    }
+}
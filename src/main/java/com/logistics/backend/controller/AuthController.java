@@ -2,19 +2,32 @@ package com.logistics.backend.controller;
 
 import com.logistics.backend.dto.AuthRequest;
 import com.logistics.backend.dto.AuthResponse;
+import com.logistics.backend.dto.RefreshRequest;
 import com.logistics.backend.dto.RegisterRequest;
 import com.logistics.backend.dto.UserDto;
 import com.logistics.backend.entity.User;
+import com.logistics.backend.exception.ResourceNotFoundException;
 import com.logistics.backend.security.JwtTokenProvider;
+import com.logistics.backend.security.PasswordHasher;
+import com.logistics.backend.service.RefreshTokenService;
 import com.logistics.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+/**
+ * Login and registration hash passwords on the PasswordHasher pool and return
+ * CompletableFutures, so the Tomcat thread is released while BCrypt runs. The
+ * database writes and token signing that follow run on the application task
+ * executor, so the hashing pool only ever runs BCrypt.
+ */
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
@@ -27,27 +40,47 @@ public class AuthController {
     private JwtTokenProvider tokenProvider;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> registerUser(@Valid @RequestBody RegisterRequest request) {
-        try {
-            var userDto = userService.registerUser(request);
-            String token = tokenProvider.generateToken(request.getEmail());
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(new AuthResponse(token, userDto));
-        } catch (IllegalArgumentException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(new AuthResponse(null, null));
+    public CompletableFuture<ResponseEntity<AuthResponse>> registerUser(@Valid @RequestBody RegisterRequest request) {
+        // Checked up front so duplicate registrations do not cost a hash
+        if (userService.isEmailRegistered(request.getEmail())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new AuthResponse(null, null)));
         }
+
+        return passwordHasher.encode(request.getPassword()).thenApplyAsync(encodedPassword -> {
+            try {
+                UserDto userDto = userService.registerUser(request, encodedPassword);
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(issueTokens(userDto));
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new AuthResponse(null, null));
+            }
+        }, taskExecutor);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> loginUser(@Valid @RequestBody AuthRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> loginUser(@Valid @RequestBody AuthRequest request) {
+        User user;
         try {
-            User user = userService.getUserByEmail(request.getEmail());
+            user = userService.getUserByEmail(request.getEmail());
+        } catch (ResourceNotFoundException ex) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new AuthResponse(null, null)));
+        }
 
-            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        return passwordHasher.matches(request.getPassword(), user.getPassword()).thenApplyAsync(matches -> {
+            if (!matches) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new AuthResponse(null, null));
             }
@@ -57,18 +90,46 @@ public class AuthController {
                         .body(new AuthResponse(null, null));
             }
 
-            String token = tokenProvider.generateToken(user.getEmail());
-
-            UserDto userDto = new UserDto();
-            userDto.setId(user.getId());
-            userDto.setEmail(user.getEmail());
-            userDto.setFullName(user.getFullName());
-            userDto.setRole(user.getRole());
+            return ResponseEntity.ok(issueTokens(toDto(user)));
+        }, taskExecutor);
+    }
 
-            return ResponseEntity.ok(new AuthResponse(token, userDto));
-        } catch (Exception ex) {
+    // Exchanges a refresh token for a new access token and refresh token, without BCrypt
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refreshToken(@Valid @RequestBody RefreshRequest request) {
+        Optional<Long> userId = refreshTokenService.consume(request.getRefreshToken());
+        if (userId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new AuthResponse(null, null));
         }
+
+        User user = userService.getUserEntityById(userId.get());
+        if (!user.getIsActive()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new AuthResponse(null, null));
+        }
+
+        return ResponseEntity.ok(issueTokens(toDto(user)));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutUser(@Valid @RequestBody RefreshRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    private AuthResponse issueTokens(UserDto userDto) {
+        String token = tokenProvider.generateToken(userDto.getId(), userDto.getEmail(), userDto.getRole());
+        String refreshToken = refreshTokenService.issue(userDto.getId());
+        return new AuthResponse(token, refreshToken, userDto);
+    }
+
+    private UserDto toDto(User user) {
+        UserDto userDto = new UserDto();
+        userDto.setId(user.getId());
+        userDto.setEmail(user.getEmail());
+        userDto.setFullName(user.getFullName());
+        userDto.setRole(user.getRole());
+        return userDto;
     }
 }
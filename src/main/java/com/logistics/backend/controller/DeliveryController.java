@@ -1,78 +1,176 @@
 package com.logistics.backend.controller;
 
+import com.logistics.backend.dto.BulkDeliveryResponse;
 import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.dto.DeliveryPage;
+import com.logistics.backend.dto.QuoteRequest;
+import com.logistics.backend.dto.QuoteResult;
+import com.logistics.backend.dto.StatusHistoryDto;
 import com.logistics.backend.dto.StatusUpdateRequest;
 import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.security.AuthenticatedUser;
+import com.logistics.backend.service.DeliveryEventStream;
 import com.logistics.backend.service.DeliveryService;
-import com.logistics.backend.service.UserService;
+import com.logistics.backend.service.DeliveryVersions;
+import com.logistics.backend.service.StatusHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/deliveries")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
 public class DeliveryController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Browsers keep the body but revalidate with If-None-Match on every request
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private DeliveryService deliveryService;
 
     @Autowired
-    private UserService userService;
+    private DeliveryEventStream deliveryEventStream;
 
-    private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userService.getUserByEmail(email).getId();
-    }
+    @Autowired
+    private StatusHistoryService statusHistoryService;
+
+    @Autowired
+    private DeliveryVersions deliveryVersions;
 
     @PostMapping
-    public ResponseEntity<DeliveryDto> createDelivery(@Valid @RequestBody DeliveryDto deliveryDto) {
-        Long userId = getCurrentUserId();
-        DeliveryDto createdDelivery = deliveryService.createDelivery(deliveryDto, userId);
+    public ResponseEntity<DeliveryDto> createDelivery(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @Valid @RequestBody DeliveryDto deliveryDto) {
+        DeliveryDto createdDelivery = deliveryService.createDelivery(deliveryDto, currentUser.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(createdDelivery);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkDeliveryResponse> createDeliveries(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody List<DeliveryDto> deliveryDtos) {
+        BulkDeliveryResponse response = deliveryService.createDeliveries(deliveryDtos, currentUser.getId());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkDeliveryResponse> createDeliveriesFromCsv(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            HttpServletRequest request) throws IOException {
+        BulkDeliveryResponse response = deliveryService.createDeliveriesFromCsv(request.getReader(), currentUser.getId());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/quote")
+    public ResponseEntity<List<QuoteResult>> quoteDeliveries(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @Valid @RequestBody QuoteRequest request) {
+        List<QuoteResult> quotes = deliveryService.quote(request.getItems(), currentUser.getId());
+        return ResponseEntity.ok(quotes);
+    }
+
+    // EventSource clients pass ?access_token=; on a "reauthenticate" event they refresh and reconnect
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDeliveryEvents(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return deliveryEventStream.subscribe(currentUser);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<DeliveryDto> getDelivery(@PathVariable Long id) {
+    public ResponseEntity<DeliveryDto> getDelivery(@PathVariable Long id, ServletWebRequest webRequest) {
+        // Revalidations read only updatedAt to answer 304; plain reads skip the probe and load once
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<LocalDateTime> updatedAt = deliveryService.getDeliveryUpdatedAt(id);
+            if (updatedAt.isPresent() && webRequest.checkNotModified(DeliveryVersions.deliveryEtag(id, updatedAt.get()))) {
+                return null;
+            }
+        }
+
         DeliveryDto delivery = deliveryService.getDeliveryById(id);
-        return ResponseEntity.ok(delivery);
+        // Taken from the loaded body: with read replicas the probe can see a different version
+        if (delivery.getUpdatedAt() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.ETAG,
+                    DeliveryVersions.deliveryEtag(delivery.getId(), delivery.getUpdatedAt()));
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(delivery);
+    }
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<StatusHistoryDto>> getDeliveryHistory(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @PathVariable Long id) {
+        if (!canViewHistory(currentUser, deliveryService.getDeliveryById(id))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(statusHistoryService.getTimeline(id));
+    }
+
+    // Admins, the business user who created the delivery, and the driver assigned to it
+    private boolean canViewHistory(AuthenticatedUser currentUser, DeliveryDto delivery) {
+        if (currentUser.hasRole(UserRole.ADMIN)) {
+            return true;
+        }
+        if (currentUser.hasRole(UserRole.DRIVER)) {
+            return delivery.getDriver() != null && currentUser.getId().equals(delivery.getDriver().getId());
+        }
+        return currentUser.hasRole(UserRole.BUSINESS_USER)
+                && delivery.getBusinessUser() != null
+                && currentUser.getId().equals(delivery.getBusinessUser().getId());
     }
 
     @GetMapping
-    public ResponseEntity<List<DeliveryDto>> getAllDeliveries() {
-        Long userId = getCurrentUserId();
-        var user = userService.getUserById(userId);
-
-        List<DeliveryDto> deliveries;
-
-        if (user.getRole() == UserRole.ADMIN) {
-            deliveries = deliveryService.getPendingDeliveries();
-        } else if (user.getRole() == UserRole.BUSINESS_USER) {
-            deliveries = deliveryService.getDeliveriesByBusinessUser(userId);
-        } else if (user.getRole() == UserRole.DRIVER) {
-            deliveries = deliveryService.getDeliveriesByDriver(userId);
+    public ResponseEntity<List<DeliveryDto>> getAllDeliveries(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            ServletWebRequest webRequest) {
+        // Taken before loading, so a change made meanwhile can only make the ETag older than the body
+        String etag = deliveryVersions.listingEtag(currentUser, cursor, size);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        if (currentUser.hasRole(UserRole.ADMIN)) {
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(deliveryService.getPendingDeliveries());
+        }
+
+        DeliveryPage page;
+        if (currentUser.hasRole(UserRole.BUSINESS_USER)) {
+            page = deliveryService.getDeliveriesByBusinessUser(currentUser.getId(), cursor, size);
+        } else if (currentUser.hasRole(UserRole.DRIVER)) {
+            page = deliveryService.getDeliveriesByDriver(currentUser.getId(), cursor, size);
         } else {
-            deliveries = List.of();
+            return ResponseEntity.ok(List.of());
         }
 
-        return ResponseEntity.ok(deliveries);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @PutMapping("/{id}/assign-driver/{driverId}")
     public ResponseEntity<DeliveryDto> assignDriver(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long id,
             @PathVariable Long driverId) {
-        Long userId = getCurrentUserId();
-        var user = userService.getUserById(userId);
-
-        if (user.getRole() != UserRole.ADMIN) {
+        if (!currentUser.hasRole(UserRole.ADMIN)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -82,10 +180,10 @@ public class DeliveryController {
 
     @PutMapping("/{id}/status")
     public ResponseEntity<DeliveryDto> updateDeliveryStatus(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long id,
             @Valid @RequestBody StatusUpdateRequest request) {
-        Long userId = getCurrentUserId();
-        DeliveryDto updatedDelivery = deliveryService.updateDeliveryStatus(id, request, userId);
+        DeliveryDto updatedDelivery = deliveryService.updateDeliveryStatus(id, request, currentUser.getId());
         return ResponseEntity.ok(updatedDelivery);
     }
 }
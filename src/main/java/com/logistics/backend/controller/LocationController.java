@@ -0,0 +1,68 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.dto.DriverLocationDto;
+import com.logistics.backend.dto.LocationBatchRequest;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.exception.ResourceNotFoundException;
+import com.logistics.backend.security.AuthenticatedUser;
+import com.logistics.backend.service.DeliveryService;
+import com.logistics.backend.service.DriverLocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/locations")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class LocationController {
+
+    @Autowired
+    private DriverLocationService driverLocationService;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Integer>> reportLocations(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @Valid @RequestBody LocationBatchRequest request) {
+        if (!currentUser.hasRole(UserRole.DRIVER)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        int accepted = driverLocationService.ingest(currentUser.getId(), request.getPings());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", accepted));
+    }
+
+    @GetMapping("/drivers/{driverId}")
+    public ResponseEntity<DriverLocationDto> getLatestLocation(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @PathVariable Long driverId) {
+        if (!canViewLocation(currentUser, driverId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        DriverLocationDto location = driverLocationService.getLatest(driverId);
+        if (location == null) {
+            throw new ResourceNotFoundException("No location reported for driver: " + driverId);
+        }
+        return ResponseEntity.ok(location);
+    }
+
+    // Admins, the driver themselves, and business users the driver is currently delivering for
+    private boolean canViewLocation(AuthenticatedUser currentUser, Long driverId) {
+        if (currentUser.hasRole(UserRole.ADMIN)) {
+            return true;
+        }
+        if (currentUser.hasRole(UserRole.DRIVER)) {
+            return currentUser.getId().equals(driverId);
+        }
+        return currentUser.hasRole(UserRole.BUSINESS_USER)
+                && deliveryService.hasActiveDeliveryWithDriver(currentUser.getId(), driverId);
+    }
+}
@@ -1,9 +1,17 @@
 package com.logistics.backend.controller;
 
+import com.logistics.backend.dto.NearbyDriverDto;
 import com.logistics.backend.dto.UserDto;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.geo.DriverSpatialIndex;
+import com.logistics.backend.geo.GeoUtils;
+import com.logistics.backend.security.AuthenticatedUser;
 import com.logistics.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,15 +24,71 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DriverSpatialIndex driverSpatialIndex;
+
+    @Value("${geo.nearby.max-results:100}")
+    private int maxNearbyResults;
+
+    @Value("${geo.nearby.default-radius-km:25}")
+    private double defaultRadiusKm;
+
+    @Value("${geo.nearby.max-radius-km:200}")
+    private double maxRadiusKm;
+
     @GetMapping("/drivers")
     public ResponseEntity<List<UserDto>> getAllDrivers() {
         List<UserDto> drivers = userService.getAllDrivers();
         return ResponseEntity.ok(drivers);
     }
 
+    /**
+     * Drivers closest to a point by last known position. With k, returns the k
+     * nearest inside the radius; without it, every driver inside the radius.
+     * Admin only: it exposes live positions of drivers the caller has no delivery with.
+     */
+    @GetMapping("/drivers/nearby")
+    public ResponseEntity<List<NearbyDriverDto>> getNearbyDrivers(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) Double radiusKm) {
+        if (!currentUser.hasRole(UserRole.ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!GeoUtils.isValid(lat, lng)) {
+            throw new IllegalArgumentException("Invalid coordinates");
+        }
+        double radius = Math.min(radiusKm != null ? radiusKm : defaultRadiusKm, maxRadiusKm);
+
+        List<NearbyDriverDto> drivers;
+        if (k != null) {
+            if (k < 1) {
+                throw new IllegalArgumentException("k must be positive");
+            }
+            drivers = driverSpatialIndex.nearest(lat, lng, Math.min(k, maxNearbyResults), radius);
+        } else {
+            drivers = driverSpatialIndex.withinRadius(lat, lng, radius, maxNearbyResults);
+        }
+        return ResponseEntity.ok(drivers);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
         UserDto user = userService.getUserById(id);
         return ResponseEntity.ok(user);
     }
+
+    @PutMapping("/{id}/deactivate")
+    public ResponseEntity<UserDto> deactivateUser(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @PathVariable Long id) {
+        if (!currentUser.hasRole(UserRole.ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UserDto user = userService.deactivateUser(id);
+        return ResponseEntity.ok(user);
+    }
 }
@@ -0,0 +1,24 @@
+package com.logistics.backend.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "replica.datasource", name = "urls")
+public class ReplicaHealthMonitor {
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${replica.heartbeat-interval-ms:1000}")
+    public void writeHeartbeat() {
+        replicaRoutingDataSource.writeHeartbeat();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        replicaRoutingDataSource.checkHealth();
+    }
+}
@@ -0,0 +1,198 @@
+package com.logistics.backend.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica, round
+ * robin, and everything else to the primary. A replica that fails to hand
+ * out a connection is marked down and the request falls back to the
+ * primary; {@link #checkHealth()} brings it back once it answers again.
+ *
+ * {@link #checkHealth()} also marks down a replica that is more than maxLag
+ * behind. Lag is read from the replica_heartbeat row that
+ * {@link #writeHeartbeat()} stamps on the primary with the database clock:
+ * a replica's lag is its own clock minus the newest stamp it has applied, so
+ * it includes up to one heartbeat interval and maxLag must be well above it.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction's
+ * read-only flag is only set after the transaction manager asks for a
+ * connection, so the physical connection has to be fetched lazily.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final String WRITE_HEARTBEAT =
+            "update replica_heartbeat set beat_at = current_timestamp(6) where id = 1";
+
+    private static final String READ_HEARTBEAT =
+            "select beat_at, current_timestamp(6) from replica_heartbeat where id = 1";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Duration maxLag;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException ex) {
+            markDown(replica, ex.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    // Replica pools have their own credentials, so explicit ones always go to the primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    public void writeHeartbeat() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(WRITE_HEARTBEAT);
+        } catch (SQLException ex) {
+            log.warn("Could not write the replica heartbeat: {}", ex.getMessage());
+        }
+    }
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    markDown(replica, "connection not valid");
+                    continue;
+                }
+                long lagMs = lagMillis(connection);
+                replica.lagMs = lagMs;
+                if (lagMs > maxLag.toMillis()) {
+                    markDown(replica, lagMs + " ms behind the primary");
+                    continue;
+                }
+                if (!replica.healthy) {
+                    log.info("Replica {} is healthy again", replica.name);
+                }
+                replica.healthy = true;
+            } catch (SQLException ex) {
+                markDown(replica, ex.getMessage());
+            }
+        }
+    }
+
+    public List<DataSource> getReplicaDataSources() {
+        List<DataSource> dataSources = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            dataSources.add(replica.dataSource);
+        }
+        return dataSources;
+    }
+
+    public int getHealthyReplicaCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    // Lag measured by the last health check, -1 before the first one
+    public long getReplicaLagMillis(int index) {
+        return replicas.get(index).lagMs;
+    }
+
+    // Called by Spring on shutdown through destroy-method inference
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) replica.dataSource).close();
+                } catch (Exception ex) {
+                    log.warn("Could not close replica {}: {}", replica.name, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReplicaRoutingContext.isPrimaryRequired()) {
+            return null;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static long lagMillis(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(READ_HEARTBEAT)) {
+            if (!rs.next()) {
+                throw new SQLException("replica_heartbeat has no row");
+            }
+            Timestamp beatAt = rs.getTimestamp(1);
+            Timestamp now = rs.getTimestamp(2);
+            return Math.max(0, now.getTime() - beatAt.getTime());
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("Replica {} is unavailable, routing its reads to the primary: {}", replica.name, reason);
+        }
+        replica.healthy = false;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile long lagMs = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
 
     private String token;
+    private String refreshToken;
     private String message;
     private UserDto user;
 
@@ -18,4 +19,9 @@ public class AuthResponse {
         this.user = user;
         this.message = "Authentication successful";
     }
+
+    public AuthResponse(String token, String refreshToken, UserDto user) {
+        this(token, user);
+        this.refreshToken = refreshToken;
+    }
 }
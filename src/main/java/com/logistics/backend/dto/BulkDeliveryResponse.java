@@ -0,0 +1,19 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeliveryResponse {
+
+    private int received;
+    private int created;
+    private int rejected;
+    private int failed;
+    private List<BulkDeliveryResult> results;
+}
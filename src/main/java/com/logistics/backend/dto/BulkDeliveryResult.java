@@ -0,0 +1,23 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeliveryResult {
+
+    public enum Outcome {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    // 1-based position of the row in the submitted batch
+    private int row;
+    private Outcome outcome;
+    private Long id;
+    private String error;
+}
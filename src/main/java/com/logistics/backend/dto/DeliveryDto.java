@@ -53,4 +53,47 @@ public class DeliveryDto {
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /**
+     * Flat constructor used by the JPQL constructor expressions in
+     * DeliveryRepository, so list reads never hydrate Delivery or User entities.
+     */
+    public DeliveryDto(Long id, String pickupAddress, String dropAddress,
+                       String customerName, String customerPhone, BigDecimal weight,
+                       DeliveryPriority priority, String notes, DeliveryStatus status,
+                       BigDecimal estimatedKm, BigDecimal estimatedCost,
+                       BigDecimal actualKm, BigDecimal actualCost,
+                       LocalDateTime createdAt, LocalDateTime updatedAt,
+                       Long businessUserId, String businessUserEmail, String businessUserFullName,
+                       Long driverId, String driverEmail, String driverFullName) {
+        this.id = id;
+        this.pickupAddress = pickupAddress;
+        this.dropAddress = dropAddress;
+        this.customerName = customerName;
+        this.customerPhone = customerPhone;
+        this.weight = weight;
+        this.priority = priority;
+        this.notes = notes;
+        this.status = status;
+        this.estimatedKm = estimatedKm;
+        this.estimatedCost = estimatedCost;
+        this.actualKm = actualKm;
+        this.actualCost = actualCost;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+
+        UserDto businessUserDto = new UserDto();
+        businessUserDto.setId(businessUserId);
+        businessUserDto.setEmail(businessUserEmail);
+        businessUserDto.setFullName(businessUserFullName);
+        this.businessUser = businessUserDto;
+
+        if (driverId != null) {
+            UserDto driverDto = new UserDto();
+            driverDto.setId(driverId);
+            driverDto.setEmail(driverEmail);
+            driverDto.setFullName(driverFullName);
+            this.driver = driverDto;
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryPage {
+
+    private List<DeliveryDto> items;
+
+    // Null when there are no more results
+    private String nextCursor;
+}
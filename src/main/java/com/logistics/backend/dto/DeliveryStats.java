@@ -0,0 +1,23 @@
+package com.logistics.backend.dto;
+
+import com.logistics.backend.entity.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryStats {
+
+    private Map<DeliveryStatus, Long> countsByStatus;
+    private long totalDeliveries;
+    // Sum of actualCost over delivered deliveries
+    private BigDecimal revenue;
+    private Map<Long, Long> completedByDriver;
+    private LocalDateTime lastFlushedAt;
+}
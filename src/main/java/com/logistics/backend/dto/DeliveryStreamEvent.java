@@ -0,0 +1,30 @@
+package com.logistics.backend.dto;
+
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.event.DeliveryEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryStreamEvent {
+
+    private DeliveryEvent.Type type;
+    private Long deliveryId;
+    private DeliveryStatus status;
+    private Long driverId;
+    private LocalDateTime occurredAt;
+
+    public static DeliveryStreamEvent from(DeliveryEvent event) {
+        return new DeliveryStreamEvent(
+                event.getType(),
+                event.getDeliveryId(),
+                event.getNewStatus(),
+                event.getDriverId(),
+                event.getOccurredAt());
+    }
+}
@@ -0,0 +1,26 @@
+package com.logistics.backend.dto;
+
+import com.logistics.backend.service.DispatchPolicy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchStats {
+
+    private boolean enabled;
+    private DispatchPolicy policy;
+    private int queueDepth;
+    private int availableDrivers;
+    private long assignedTotal;
+    private long conflictsTotal;
+    private long failuresTotal;
+    private long cyclesTotal;
+    private int lastCycleAssigned;
+    private long lastCycleDurationMs;
+    // Time from delivery creation to assignment
+    private double averageAssignmentLatencyMs;
+    private long maxAssignmentLatencyMs;
+}
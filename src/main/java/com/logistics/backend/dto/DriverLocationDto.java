@@ -0,0 +1,18 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverLocationDto {
+
+    private Long driverId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime recordedAt;
+}
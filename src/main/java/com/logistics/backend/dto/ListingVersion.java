@@ -0,0 +1,22 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How many deliveries a listing covers and when the newest of them last
+ * changed. Every write to a delivery sets its updatedAt, so any insert,
+ * update or removal changes one of the two.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingVersion {
+
+    private long count;
+    // Null for an empty listing
+    private LocalDateTime lastUpdatedAt;
+}
@@ -0,0 +1,21 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationBatchRequest {
+
+    @NotEmpty(message = "At least one ping is required")
+    @Size(max = 1000, message = "At most 1000 pings per batch")
+    @Valid
+    private List<LocationPing> pings;
+}
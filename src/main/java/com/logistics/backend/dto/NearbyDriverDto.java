@@ -0,0 +1,19 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyDriverDto {
+
+    private Long driverId;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+    private LocalDateTime recordedAt;
+}
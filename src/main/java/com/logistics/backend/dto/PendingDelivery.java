@@ -0,0 +1,26 @@
+package com.logistics.backend.dto;
+
+import com.logistics.backend.entity.DeliveryPriority;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Queue entry for the dispatcher: just enough of a delivery to order it.
+ */
+@Getter
+@AllArgsConstructor
+public class PendingDelivery {
+
+    // Highest priority first, then oldest first
+    public static final Comparator<PendingDelivery> DISPATCH_ORDER = Comparator
+            .comparing(PendingDelivery::getPriority, Comparator.reverseOrder())
+            .thenComparing(PendingDelivery::getCreatedAt)
+            .thenComparing(PendingDelivery::getId);
+
+    private final Long id;
+    private final DeliveryPriority priority;
+    private final LocalDateTime createdAt;
+}
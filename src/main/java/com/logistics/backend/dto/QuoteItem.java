@@ -0,0 +1,25 @@
+package com.logistics.backend.dto;
+
+import com.logistics.backend.entity.DeliveryPriority;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteItem {
+
+    private BigDecimal weight;
+
+    private DeliveryPriority priority = DeliveryPriority.MEDIUM;
+
+    // Used as-is when given, otherwise estimated from the addresses
+    private BigDecimal estimatedKm;
+
+    private String pickupAddress;
+
+    private String dropAddress;
+}
@@ -0,0 +1,18 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteResult {
+
+    private BigDecimal estimatedKm;
+    private BigDecimal estimatedCost;
+    // Set instead of a cost when the item cannot be priced
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.logistics.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusHistoryDto {
+
+    // Null while the entry is still waiting in the write-behind buffer
+    private Long id;
+    private String oldStatus;
+    private String newStatus;
+    private Long changedById;
+    private LocalDateTime changedAt;
+}
@@ -15,15 +15,23 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Delivery {
 
+    // Table-backed pooled ids (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "delivery_id")
+    @TableGenerator(
+            name = "delivery_id",
+            table = "id_generators",
+            pkColumnName = "sequence_name",
+            valueColumnName = "next_val",
+            pkColumnValue = "deliveries",
+            allocationSize = 500)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "business_user_id", nullable = false)
     private User businessUser;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_id")
     private User driver;
 
@@ -0,0 +1,30 @@
+package com.logistics.backend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Summary row for the admin KPIs, one per counter key. Written by
+ * DeliveryStatsService with batched upserts, never through JPA.
+ */
+@Entity
+@Table(name = "delivery_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryStat {
+
+    @Id
+    @Column(name = "stat_key", length = 64)
+    private String key;
+
+    @Column(name = "stat_value", nullable = false)
+    private Long value;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,9 +1,44 @@
 package com.logistics.backend.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum DeliveryStatus {
     PENDING,
     ACCEPTED,
     ON_WAY,
     DELIVERED,
-    CANCELLED
+    CANCELLED;
+
+    public Set<DeliveryStatus> getAllowedTransitions() {
+        switch (this) {
+            case PENDING:
+                return EnumSet.of(ACCEPTED, CANCELLED);
+            case ACCEPTED:
+                return EnumSet.of(ON_WAY, CANCELLED);
+            case ON_WAY:
+                return EnumSet.of(DELIVERED, CANCELLED);
+            default:
+                return EnumSet.noneOf(DeliveryStatus.class);
+        }
+    }
+
+    public boolean canTransitionTo(DeliveryStatus next) {
+        return getAllowedTransitions().contains(next);
+    }
+
+    public boolean isTerminal() {
+        return getAllowedTransitions().isEmpty();
+    }
+
+    // Statuses a delivery may be in for a move to this status to be valid
+    public Set<DeliveryStatus> getAllowedPredecessors() {
+        Set<DeliveryStatus> predecessors = EnumSet.noneOf(DeliveryStatus.class);
+        for (DeliveryStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                predecessors.add(status);
+            }
+        }
+        return predecessors;
+    }
 }
@@ -0,0 +1,36 @@
+package com.logistics.backend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Downsampled driver trail. Rows are written in batches by
+ * DriverLocationService, never through JPA on the request path.
+ */
+@Entity
+@Table(name = "driver_locations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+}
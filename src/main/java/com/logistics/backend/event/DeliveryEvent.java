@@ -0,0 +1,66 @@
+package com.logistics.backend.event;
+
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.entity.Delivery;
+import com.logistics.backend.entity.DeliveryPriority;
+import com.logistics.backend.entity.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by DeliveryService after a delivery is created, assigned or
+ * changes status. Listeners run synchronously on the publishing thread, so
+ * they must only update in-memory state or hand work off.
+ */
+@Getter
+@AllArgsConstructor
+public class DeliveryEvent {
+
+    public enum Type {
+        CREATED,
+        ASSIGNED,
+        STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final Long deliveryId;
+    private final Long businessUserId;
+    private final Long driverId;
+    private final DeliveryPriority priority;
+    private final DeliveryStatus oldStatus;
+    private final DeliveryStatus newStatus;
+    private final BigDecimal actualCost;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime occurredAt;
+
+    public static DeliveryEvent created(Delivery delivery) {
+        return new DeliveryEvent(
+                Type.CREATED,
+                delivery.getId(),
+                delivery.getBusinessUser().getId(),
+                null,
+                delivery.getPriority(),
+                null,
+                delivery.getStatus(),
+                null,
+                delivery.getCreatedAt(),
+                delivery.getCreatedAt());
+    }
+
+    public static DeliveryEvent of(Type type, DeliveryDto delivery, DeliveryStatus oldStatus) {
+        return new DeliveryEvent(
+                type,
+                delivery.getId(),
+                delivery.getBusinessUser() != null ? delivery.getBusinessUser().getId() : null,
+                delivery.getDriver() != null ? delivery.getDriver().getId() : null,
+                delivery.getPriority(),
+                oldStatus,
+                delivery.getStatus(),
+                delivery.getActualCost(),
+                delivery.getCreatedAt(),
+                delivery.getUpdatedAt());
+    }
+}
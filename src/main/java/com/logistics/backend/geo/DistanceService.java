@@ -0,0 +1,13 @@
+package com.logistics.backend.geo;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Estimates the travel distance between two free-form addresses. Empty when
+ * either address cannot be located.
+ */
+public interface DistanceService {
+
+    Optional<BigDecimal> estimateKm(String pickupAddress, String dropAddress);
+}
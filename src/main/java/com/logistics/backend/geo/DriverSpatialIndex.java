@@ -0,0 +1,263 @@
+package com.logistics.backend.geo;
+
+import com.logistics.backend.dto.NearbyDriverDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform lat/lng grid over the last known driver positions.
+ *
+ * Updates move a driver between cells only when it crosses a cell boundary.
+ * Queries scan rings of cells outward from the query cell and stop once the
+ * scanned block contains the whole circle around the query point holding the
+ * current k-th result, or the whole search radius. Positions older than
+ * geo.index.max-age-ms are ignored.
+ */
+@Component
+public class DriverSpatialIndex {
+
+    // Along a meridian, on the sphere GeoUtils.haversineKm measures on
+    private static final double KM_PER_DEGREE = GeoUtils.EARTH_RADIUS_KM * Math.PI / 180;
+
+    // Heap order for the k best so far: the worst of them is on top
+    private static final Comparator<Match> FARTHEST_FIRST =
+            Comparator.comparingDouble((Match match) -> match.distanceKm).reversed();
+
+    @Value("${geo.index.cell-size-deg:0.05}")
+    private double cellSizeDeg;
+
+    @Value("${geo.index.max-age-ms:600000}")
+    private long maxAgeMs;
+
+    private int rows;
+    private int columns;
+
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    private final Map<Long, Entry> positions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        rows = (int) Math.ceil(180 / cellSizeDeg);
+        columns = (int) Math.ceil(360 / cellSizeDeg);
+    }
+
+    public void update(Long driverId, double latitude, double longitude, long reportedAt) {
+        // A position from the future would hide every later update until that time passes
+        long recordedAt = Math.min(reportedAt, System.currentTimeMillis());
+        long cell = cellOf(row(latitude), column(longitude));
+        positions.compute(driverId, (id, previous) -> {
+            if (previous != null && previous.recordedAt > recordedAt) {
+                return previous;
+            }
+            if (previous == null || previous.cell != cell) {
+                if (previous != null) {
+                    removeFromCell(previous.cell, id);
+                }
+                cells.compute(cell, (key, drivers) -> {
+                    Set<Long> members = drivers != null ? drivers : ConcurrentHashMap.<Long>newKeySet();
+                    members.add(id);
+                    return members;
+                });
+            }
+            return new Entry(latitude, longitude, recordedAt, cell);
+        });
+    }
+
+    public void remove(Long driverId) {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            removeFromCell(previous.cell, id);
+            return null;
+        });
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    // The limit closest drivers inside the radius are a k-nearest query; rings let the bound shrink early
+    public List<NearbyDriverDto> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        return nearest(latitude, longitude, limit, radiusKm);
+    }
+
+    // Scans every cell overlapping the circle's bounding box
+    private List<NearbyDriverDto> scanBox(double latitude, double longitude, double radiusKm, int limit) {
+        long cutoff = System.currentTimeMillis() - maxAgeMs;
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lngSpan = longitudeSpan(latitude, latSpan);
+
+        int minRow = row(Math.max(-90, latitude - latSpan));
+        int maxRow = row(Math.min(90, latitude + latSpan));
+        int minColumn = column(longitude - lngSpan);
+        int columnSpan = (int) Math.ceil(2 * lngSpan / cellSizeDeg) + 1;
+
+        PriorityQueue<Match> best = new PriorityQueue<>(FARTHEST_FIRST);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = 0; c < Math.min(columnSpan, columns); c++) {
+                Set<Long> drivers = cells.get(cellOf(r, Math.floorMod(minColumn + c, columns)));
+                if (drivers != null) {
+                    collect(drivers, latitude, longitude, cutoff, radiusKm, limit, best);
+                }
+            }
+        }
+        return toResults(best);
+    }
+
+    public List<NearbyDriverDto> nearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        long cutoff = System.currentTimeMillis() - maxAgeMs;
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        // By this ring every row within maxRadiusKm has been scanned
+        int maxRing = (int) Math.ceil(maxRadiusKm / (cellSizeDeg * KM_PER_DEGREE)) + 1;
+
+        PriorityQueue<Match> best = new PriorityQueue<>(FARTHEST_FIRST);
+        for (int ring = 0; ring <= maxRing && 2 * ring + 1 <= columns; ring++) {
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                for (int c = centerColumn - ring; c <= centerColumn + ring; c += step) {
+                    Set<Long> drivers = cells.get(cellOf(r, Math.floorMod(c, columns)));
+                    if (drivers != null) {
+                        collect(drivers, latitude, longitude, cutoff, maxRadiusKm, k, best);
+                    }
+                }
+            }
+
+            double coveredKm = coveredKm(latitude, longitude, ring);
+            if (coveredKm >= maxRadiusKm || (best.size() == k && best.peek().distanceKm <= coveredKm)) {
+                return toResults(best);
+            }
+        }
+
+        // Near the poles cells narrow faster than rings widen; finish with a box scan
+        return scanBox(latitude, longitude, maxRadiusKm, k);
+    }
+
+    /**
+     * Adds the cell's drivers within radiusKm to best, keeping only the limit
+     * closest. Only matches get a result object; the rest cost a distance at most.
+     */
+    private void collect(Set<Long> drivers, double latitude, double longitude, long cutoff,
+                         double radiusKm, int limit, PriorityQueue<Match> best) {
+        for (Long driverId : drivers) {
+            Entry entry = positions.get(driverId);
+            if (entry == null || entry.recordedAt < cutoff) {
+                continue;
+            }
+            double boundKm = best.size() < limit ? radiusKm : best.peek().distanceKm;
+            // The latitude difference alone is a lower bound on the distance
+            if (Math.abs(entry.latitude - latitude) * KM_PER_DEGREE > boundKm) {
+                continue;
+            }
+            double distanceKm = GeoUtils.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distanceKm > radiusKm) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Match(driverId, entry, distanceKm));
+            } else if (distanceKm < best.peek().distanceKm) {
+                best.poll();
+                best.add(new Match(driverId, entry, distanceKm));
+            }
+        }
+    }
+
+    private static List<NearbyDriverDto> toResults(PriorityQueue<Match> best) {
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(FARTHEST_FIRST.reversed());
+        List<NearbyDriverDto> results = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            results.add(new NearbyDriverDto(match.driverId, match.entry.latitude, match.entry.longitude,
+                    match.distanceKm, new Timestamp(match.entry.recordedAt).toLocalDateTime()));
+        }
+        return results;
+    }
+
+    /**
+     * Radius of the largest circle around the point that lies inside the block
+     * of cells scanned after the given ring. A pole counts as an edge, since
+     * what lies past it is at longitudes the block may not include.
+     */
+    private double coveredKm(double latitude, double longitude, int ring) {
+        int centerRow = row(latitude);
+        double south = Math.max(-90, (centerRow - ring) * cellSizeDeg - 90);
+        double north = Math.min(90, (centerRow + ring + 1) * cellSizeDeg - 90);
+        double latitudeKm = Math.min(latitude - south, north - latitude) * KM_PER_DEGREE;
+
+        // Unwrapped column position, so the block's edges need no antimeridian handling
+        double position = (longitude + 180) / cellSizeDeg;
+        double first = Math.floor(position) - ring;
+        double margin = Math.min(position - first, first + 2 * ring + 1 - position) * cellSizeDeg;
+        // Inverse of longitudeSpan: the widest circle whose longitudes stay within the margin
+        double longitudeKm = GeoUtils.EARTH_RADIUS_KM * Math.asin(
+                Math.sin(Math.toRadians(Math.min(90, margin))) * Math.cos(Math.toRadians(latitude)));
+        return Math.max(0, Math.min(latitudeKm, longitudeKm));
+    }
+
+    // Half the longitude range of a circle with this radius in degrees; all of it once the circle holds a pole
+    private static double longitudeSpan(double latitude, double radiusDeg) {
+        if (Math.abs(latitude) + radiusDeg >= 90) {
+            return 180;
+        }
+        return Math.toDegrees(Math.asin(
+                Math.sin(Math.toRadians(radiusDeg)) / Math.cos(Math.toRadians(latitude))));
+    }
+
+    private void removeFromCell(long cell, Long driverId) {
+        cells.computeIfPresent(cell, (key, drivers) -> {
+            drivers.remove(driverId);
+            return drivers.isEmpty() ? null : drivers;
+        });
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellSizeDeg));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellSizeDeg), columns);
+    }
+
+    private long cellOf(int row, int column) {
+        return (long) row * columns + column;
+    }
+
+    private static final class Match {
+        private final Long driverId;
+        private final Entry entry;
+        private final double distanceKm;
+
+        private Match(Long driverId, Entry entry, double distanceKm) {
+            this.driverId = driverId;
+            this.entry = entry;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    private static final class Entry {
+        private final double latitude;
+        private final double longitude;
+        private final long recordedAt;
+        private final long cell;
+
+        private Entry(double latitude, double longitude, long recordedAt, long cell) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.recordedAt = recordedAt;
+            this.cell = cell;
+        }
+    }
+}
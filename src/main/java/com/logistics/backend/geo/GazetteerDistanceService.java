@@ -0,0 +1,192 @@
+package com.logistics.backend.geo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline distance estimates: addresses are normalized and matched against a
+ * local gazetteer of place names, and the distance is the great-circle
+ * distance scaled by distance.road-factor. Addresses that resolve to the
+ * same place have no estimate rather than 0 km.
+ *
+ * Geocoded coordinates (including misses) and address-pair distances are
+ * kept in bounded LRU caches, since senders reuse the same addresses. Both
+ * caches report to Micrometer as cache.* meters tagged gazetteer.coordinates
+ * and gazetteer.distances.
+ */
+@Service
+public class GazetteerDistanceService implements DistanceService {
+
+    private static final GeoPoint NOT_FOUND = new GeoPoint(Double.NaN, Double.NaN);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${distance.gazetteer-location:classpath:gazetteer.csv}")
+    private String gazetteerLocation;
+
+    @Value("${distance.road-factor:1.3}")
+    private double roadFactor;
+
+    @Value("${distance.cache.coordinates-max-size:50000}")
+    private long coordinatesCacheSize;
+
+    @Value("${distance.cache.distances-max-size:100000}")
+    private long distancesCacheSize;
+
+    private Map<String, GeoPoint> gazetteer;
+
+    private Cache<String, GeoPoint> coordinatesCache;
+
+    private Cache<String, BigDecimal> distancesCache;
+
+    @PostConstruct
+    public void init() throws IOException {
+        gazetteer = loadGazetteer(resourceLoader.getResource(gazetteerLocation));
+        coordinatesCache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(coordinatesCacheSize)
+                .recordStats()
+                .<String, GeoPoint>build(), "gazetteer.coordinates");
+        distancesCache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(distancesCacheSize)
+                .recordStats()
+                .<String, BigDecimal>build(), "gazetteer.distances");
+    }
+
+    @Override
+    public Optional<BigDecimal> estimateKm(String pickupAddress, String dropAddress) {
+        if (pickupAddress == null || dropAddress == null) {
+            return Optional.empty();
+        }
+
+        String pickup = normalize(pickupAddress);
+        String drop = normalize(dropAddress);
+        String key = pickup + "|" + drop;
+
+        BigDecimal cached = distancesCache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        GeoPoint from = geocode(pickup);
+        GeoPoint to = geocode(drop);
+        if (from == NOT_FOUND || to == NOT_FOUND) {
+            return Optional.empty();
+        }
+        // Both ends fell back to the same place, e.g. two streets in one city:
+        // the gazetteer cannot tell how far apart they are
+        if (from == to) {
+            return Optional.empty();
+        }
+
+        double km = GeoUtils.haversineKm(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude())
+                * roadFactor;
+        BigDecimal distance = BigDecimal.valueOf(km).setScale(2, RoundingMode.HALF_UP);
+        distancesCache.put(key, distance);
+        return Optional.of(distance);
+    }
+
+    private GeoPoint geocode(String normalizedAddress) {
+        return coordinatesCache.get(normalizedAddress, this::lookup);
+    }
+
+    /**
+     * Tries the whole address, then each trailing run of comma-separated parts
+     * ("mg road, bengaluru, karnataka" -> "bengaluru, karnataka" -> ...), then
+     * each part alone, then word pairs and single words from the end, where
+     * the city usually is.
+     */
+    private GeoPoint lookup(String normalizedAddress) {
+        GeoPoint point = gazetteer.get(normalizedAddress);
+        if (point != null) {
+            return point;
+        }
+
+        String[] parts = normalizedAddress.split(",");
+        for (int i = 1; i < parts.length; i++) {
+            point = gazetteer.get(String.join(",", Arrays.copyOfRange(parts, i, parts.length)));
+            if (point != null) {
+                return point;
+            }
+        }
+        for (String part : parts) {
+            point = gazetteer.get(part);
+            if (point != null) {
+                return point;
+            }
+        }
+
+        String[] words = normalizedAddress.replace(',', ' ').trim().split(" +");
+        for (int i = words.length - 2; i >= 0; i--) {
+            point = gazetteer.get(words[i] + " " + words[i + 1]);
+            if (point != null) {
+                return point;
+            }
+        }
+        for (int i = words.length - 1; i >= 0; i--) {
+            point = gazetteer.get(words[i]);
+            if (point != null) {
+                return point;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    // Lower case, punctuation dropped, whitespace collapsed, comma parts trimmed
+    static String normalize(String address) {
+        String cleaned = address.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{Nd},]+", " ");
+        StringBuilder normalized = new StringBuilder(cleaned.length());
+        for (String part : cleaned.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (normalized.length() > 0) {
+                normalized.append(',');
+            }
+            normalized.append(trimmed.replaceAll(" +", " "));
+        }
+        return normalized.toString();
+    }
+
+    private Map<String, GeoPoint> loadGazetteer(Resource resource) throws IOException {
+        Map<String, GeoPoint> places = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    continue;
+                }
+                places.put(normalize(fields[0]), new GeoPoint(
+                        Double.parseDouble(fields[1].trim()),
+                        Double.parseDouble(fields[2].trim())));
+            }
+        }
+        return places;
+    }
+}
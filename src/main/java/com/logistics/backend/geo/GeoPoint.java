@@ -0,0 +1,12 @@
+package com.logistics.backend.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class GeoPoint {
+
+    private final double latitude;
+    private final double longitude;
+}
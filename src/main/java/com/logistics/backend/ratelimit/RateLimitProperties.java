@@ -0,0 +1,51 @@
+package com.logistics.backend.ratelimit;
+
+import com.logistics.backend.entity.UserRole;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binds rate-limit.* from application.properties. Each rule names an HTTP
+ * method and Ant path pattern, optionally narrowed to some roles.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Lock stripes for the bucket store, rounded up to a power of two
+    private int stripes = 64;
+
+    // Upper bound on live buckets; the least recently used are evicted first
+    private int maxKeys = 100000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        private String name;
+
+        // Null matches every method
+        private String method;
+
+        private String path;
+
+        // Empty applies the rule to every caller, including anonymous ones
+        private Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+
+        private RateLimitScope scope = RateLimitScope.USER;
+
+        private long capacity;
+
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,56 @@
+package com.logistics.backend.ratelimit;
+
+import com.logistics.backend.entity.UserRole;
+import lombok.Getter;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A rule from {@link RateLimitProperties} with its refill rate converted to
+ * tokens per nanosecond, ready for {@link TokenBucket}.
+ */
+@Getter
+public class RateLimitRule {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final String name;
+    private final String method;
+    private final String path;
+    private final Set<UserRole> roles;
+    private final RateLimitScope scope;
+    private final long capacity;
+    private final double refillPerNano;
+
+    public RateLimitRule(RateLimitProperties.Rule rule) {
+        if (rule.getCapacity() <= 0 || rule.getRefillPerSecond() <= 0) {
+            throw new IllegalArgumentException("Rate limit rule " + rule.getName() +
+                    " needs a positive capacity and refill-per-second");
+        }
+        this.name = rule.getName();
+        this.method = rule.getMethod();
+        this.path = rule.getPath();
+        this.roles = rule.getRoles().isEmpty() ? EnumSet.noneOf(UserRole.class) : EnumSet.copyOf(rule.getRoles());
+        this.scope = rule.getScope();
+        this.capacity = rule.getCapacity();
+        this.refillPerNano = rule.getRefillPerSecond() / 1_000_000_000d;
+    }
+
+    // A null role is an anonymous caller, only covered by rules without roles
+    public boolean matches(String requestMethod, String requestPath, UserRole role) {
+        if (method != null && !method.equalsIgnoreCase(requestMethod)) {
+            return false;
+        }
+        if (!roles.isEmpty() && (role == null || !roles.contains(role))) {
+            return false;
+        }
+        return PATH_MATCHER.match(path, requestPath);
+    }
+
+    // Time after which an untouched bucket is full again and can be dropped
+    public long getFullRefillNanos() {
+        return (long) Math.ceil(capacity / refillPerNano);
+    }
+}
@@ -0,0 +1,8 @@
+package com.logistics.backend.ratelimit;
+
+public enum RateLimitScope {
+    // One bucket per user, or per client address for anonymous requests
+    USER,
+    // One bucket shared by every user with the same role
+    ROLE
+}
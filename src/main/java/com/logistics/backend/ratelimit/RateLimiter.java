@@ -0,0 +1,108 @@
+package com.logistics.backend.ratelimit;
+
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the configured rate limit rules to a request. Every matching rule
+ * must grant a token; the first rule that has none rejects the request, and
+ * the tokens already taken from earlier rules are given back, so a rejected
+ * request costs nothing.
+ */
+@Component
+public class RateLimiter {
+
+    private static final String ANONYMOUS_KEY = "anonymous";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<RateLimitRule> rules = new ArrayList<>();
+
+    private final List<Counter> rejections = new ArrayList<>();
+
+    private TokenBucketStore store;
+
+    @PostConstruct
+    public void init() {
+        store = new TokenBucketStore(properties.getStripes(), properties.getMaxKeys());
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            rules.add(new RateLimitRule(rule));
+            rejections.add(Counter.builder("rate_limit.rejected")
+                    .description("Requests rejected with 429")
+                    .tag("rule", rule.getName())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("rate_limit.buckets", store, TokenBucketStore::size)
+                .description("Live token buckets")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && !rules.isEmpty();
+    }
+
+    /**
+     * Returns 0 if the request may proceed, otherwise the nanoseconds until
+     * the rejecting bucket has a token again. A null user is an anonymous
+     * caller, limited by client address.
+     */
+    public long tryAcquire(String method, String path, AuthenticatedUser user, String clientAddress) {
+        long now = System.nanoTime();
+        UserRole role = user != null ? user.getRole() : null;
+        for (int i = 0; i < rules.size(); i++) {
+            RateLimitRule rule = rules.get(i);
+            if (!rule.matches(method, path, role)) {
+                continue;
+            }
+            long waitNanos = store.tryAcquire(keyFor(i, rule, user, clientAddress), rule, now);
+            if (waitNanos > 0) {
+                rejections.get(i).increment();
+                refund(i, method, path, user, clientAddress, now);
+                return waitNanos;
+            }
+        }
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.idle-sweep-interval-ms:60000}")
+    public void evictIdle() {
+        store.evictIdle(System.nanoTime());
+    }
+
+    // Gives back the tokens taken from the matching rules before the rejecting one
+    private void refund(int rejectedIndex, String method, String path, AuthenticatedUser user,
+                        String clientAddress, long now) {
+        UserRole role = user != null ? user.getRole() : null;
+        for (int i = 0; i < rejectedIndex; i++) {
+            RateLimitRule rule = rules.get(i);
+            if (rule.matches(method, path, role)) {
+                store.refund(keyFor(i, rule, user, clientAddress), now);
+            }
+        }
+    }
+
+    // Rule index instead of name keeps keys short; users are keyed by id, not email
+    private static String keyFor(int ruleIndex, RateLimitRule rule, AuthenticatedUser user, String clientAddress) {
+        String subject;
+        if (rule.getScope() == RateLimitScope.ROLE) {
+            subject = user != null ? user.getRole().name() : ANONYMOUS_KEY;
+        } else {
+            subject = user != null ? "u" + user.getId() : "ip" + clientAddress;
+        }
+        return ruleIndex + ":" + subject;
+    }
+}
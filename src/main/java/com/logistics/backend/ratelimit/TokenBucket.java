@@ -0,0 +1,50 @@
+package com.logistics.backend.ratelimit;
+
+/**
+ * Classic token bucket, refilled lazily on access. Not thread safe; every
+ * access happens under its {@link TokenBucketStore} stripe lock.
+ */
+final class TokenBucket {
+
+    final RateLimitRule rule;
+
+    private double tokens;
+
+    private long lastRefillNanos;
+
+    TokenBucket(RateLimitRule rule, long now) {
+        this.rule = rule;
+        this.tokens = rule.getCapacity();
+        this.lastRefillNanos = now;
+    }
+
+    /**
+     * Takes one token and returns 0, or returns the nanoseconds until a token
+     * will be available.
+     */
+    long tryAcquire(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / rule.getRefillPerNano());
+    }
+
+    void refund(long now) {
+        refill(now);
+        tokens = Math.min(rule.getCapacity(), tokens + 1);
+    }
+
+    boolean isIdle(long now) {
+        return now - lastRefillNanos >= rule.getFullRefillNanos();
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(rule.getCapacity(), tokens + elapsed * rule.getRefillPerNano());
+            lastRefillNanos = now;
+        }
+    }
+}
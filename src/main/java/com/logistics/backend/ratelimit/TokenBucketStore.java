@@ -0,0 +1,103 @@
+package com.logistics.backend.ratelimit;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets keyed by string, split across lock stripes so concurrent
+ * requests for different keys rarely contend. Each stripe is an access-ordered
+ * LinkedHashMap capped at its share of maxKeys, so memory stays bounded and
+ * the least recently used key is evicted first. Dropping a bucket only ever
+ * forgives tokens, it never denies a request.
+ */
+public class TokenBucketStore {
+
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    public TokenBucketStore(int stripeCount, int maxKeys) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        int maxPerStripe = Math.max(1, (maxKeys + size - 1) / size);
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(maxPerStripe);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Takes a token from the bucket for the key, creating a full bucket on
+     * first use. Returns 0, or the nanoseconds to wait before retrying.
+     */
+    public long tryAcquire(String key, RateLimitRule rule, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new TokenBucket(rule, now);
+                stripe.put(key, bucket);
+            }
+            return bucket.tryAcquire(now);
+        }
+    }
+
+    // Returns a token taken by tryAcquire; a bucket evicted since is full again anyway
+    public void refund(String key, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.get(key);
+            if (bucket != null) {
+                bucket.refund(now);
+            }
+        }
+    }
+
+    // Drops buckets that have refilled completely, one stripe at a time
+    public int evictIdle(long now) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<TokenBucket> it = stripe.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().isIdle(now)) {
+                        it.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, TokenBucket> {
+
+        private final int maxSize;
+
+        private Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
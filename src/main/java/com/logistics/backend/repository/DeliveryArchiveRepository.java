@@ -0,0 +1,231 @@
+package com.logistics.backend.repository;
+
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.dto.ListingVersion;
+import com.logistics.backend.dto.StatusHistoryDto;
+import com.logistics.backend.entity.DeliveryPriority;
+import com.logistics.backend.entity.DeliveryStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to deliveries_archive and status_history_archive. The
+ * archive tables have no entities; rows only ever arrive through
+ * {@link #moveToArchive} and are read back as DTOs.
+ */
+@Repository
+public class DeliveryArchiveRepository {
+
+    private static final String SELECT_DTO = "select d.id, d.pickup_address, d.drop_address, d.customer_name, " +
+            "d.customer_phone, d.weight, d.priority, d.notes, d.status, d.estimated_km, d.estimated_cost, " +
+            "d.actual_km, d.actual_cost, d.created_at, d.updated_at, b.id, b.email, b.full_name, " +
+            "dr.id, dr.email, dr.full_name " +
+            "from deliveries_archive d join users b on b.id = d.business_user_id " +
+            "left join users dr on dr.id = d.driver_id ";
+
+    private static final String KEYSET_AFTER =
+            "and (d.created_at < :createdAt or (d.created_at = :createdAt and d.id < :id)) ";
+
+    private static final String NEWEST_FIRST = "order by d.created_at desc, d.id desc limit :limit";
+
+    // Every column of deliveries and status_history; DeliveryArchiveColumnsTest checks them against the schema
+    static final String DELIVERY_COLUMNS = "id, business_user_id, driver_id, pickup_address, " +
+            "drop_address, customer_name, customer_phone, weight, priority, notes, status, estimated_km, " +
+            "estimated_cost, actual_km, actual_cost, created_at, updated_at";
+
+    static final String HISTORY_COLUMNS = "id, delivery_id, old_status, new_status, changed_by, changed_at";
+
+    private static final RowMapper<DeliveryDto> DELIVERY_DTO = DeliveryArchiveRepository::mapDelivery;
+
+    private static final RowMapper<StatusHistoryDto> HISTORY_DTO = (rs, rowNum) -> new StatusHistoryDto(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getLong(4),
+            toLocalDateTime(rs.getTimestamp(5)));
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    // SKIP LOCKED needs MySQL 8; databases without it fall back to "for update", which serializes instead
+    @Value("${archive.claim-lock:for update skip locked}")
+    private String claimLock;
+
+    public Optional<DeliveryDto> findDtoById(Long id) {
+        List<DeliveryDto> rows = jdbcTemplate.query(
+                SELECT_DTO + "where d.id = :id", new MapSqlParameterSource("id", id), DELIVERY_DTO);
+        return rows.stream().findFirst();
+    }
+
+    public Optional<DeliveryStatus> findStatusById(Long id) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "select status from deliveries_archive where id = :id",
+                new MapSqlParameterSource("id", id), String.class);
+        return rows.stream().findFirst().map(DeliveryStatus::valueOf);
+    }
+
+    public Optional<LocalDateTime> findUpdatedAtById(Long id) {
+        List<Timestamp> rows = jdbcTemplate.queryForList(
+                "select updated_at from deliveries_archive where id = :id",
+                new MapSqlParameterSource("id", id), Timestamp.class);
+        return rows.stream().filter(Objects::nonNull).findFirst().map(Timestamp::toLocalDateTime);
+    }
+
+    /**
+     * Keyset page in the same (createdAt, id) descending order as the hot
+     * table. A null createdAt starts from the newest row.
+     */
+    public List<DeliveryDto> findPageByBusinessUser(Long userId, LocalDateTime createdAt, Long id, int limit) {
+        return findPage("where d.business_user_id = :ownerId ", userId, createdAt, id, limit);
+    }
+
+    public List<DeliveryDto> findPageByDriver(Long driverId, LocalDateTime createdAt, Long id, int limit) {
+        return findPage("where d.driver_id = :ownerId ", driverId, createdAt, id, limit);
+    }
+
+    /**
+     * Version of a business user's listing across the hot and archive tables.
+     * Archiving moves rows unchanged, so it leaves the version as it was.
+     */
+    public ListingVersion findListingVersionByBusinessUser(Long userId) {
+        return findListingVersion("business_user_id", userId);
+    }
+
+    public ListingVersion findListingVersionByDriver(Long driverId) {
+        return findListingVersion("driver_id", driverId);
+    }
+
+    public List<StatusHistoryDto> findTimeline(Long deliveryId) {
+        return jdbcTemplate.query(
+                "select id, old_status, new_status, changed_by, changed_at from status_history_archive " +
+                        "where delivery_id = :deliveryId order by changed_at desc, id desc",
+                new MapSqlParameterSource("deliveryId", deliveryId), HISTORY_DTO);
+    }
+
+    // Rows of [status, count]
+    public List<Object[]> countByStatus() {
+        return jdbcTemplate.query(
+                "select status, count(*) from deliveries_archive group by status",
+                (rs, rowNum) -> new Object[]{DeliveryStatus.valueOf(rs.getString(1)), rs.getLong(2)});
+    }
+
+    public BigDecimal sumActualCostByStatus(DeliveryStatus status) {
+        return jdbcTemplate.queryForObject(
+                "select coalesce(sum(actual_cost), 0) from deliveries_archive where status = :status",
+                new MapSqlParameterSource("status", status.name()), BigDecimal.class);
+    }
+
+    // Rows of [driverId, count]
+    public List<Object[]> countByDriverAndStatus(DeliveryStatus status) {
+        return jdbcTemplate.query(
+                "select driver_id, count(*) from deliveries_archive " +
+                        "where driver_id is not null and status = :status group by driver_id",
+                new MapSqlParameterSource("status", status.name()),
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    /**
+     * Ids of hot deliveries in one of the given statuses that were last
+     * updated before the cutoff, oldest id first. The rows stay locked until
+     * the caller's transaction ends, and rows another transaction has locked
+     * are skipped, so concurrent archivers claim disjoint chunks.
+     */
+    public List<Long> findArchivableIds(Collection<DeliveryStatus> statuses, LocalDateTime cutoff, int limit) {
+        List<String> names = new ArrayList<>(statuses.size());
+        for (DeliveryStatus status : statuses) {
+            names.add(status.name());
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("statuses", names)
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(
+                "select id from deliveries where status in (:statuses) and updated_at < :cutoff " +
+                        "order by id limit :limit " + claimLock,
+                params, Long.class);
+    }
+
+    /**
+     * Copies the deliveries and their history into the archive tables and
+     * deletes them from the hot tables. Must run inside a transaction.
+     */
+    public void moveToArchive(List<Long> ids, LocalDateTime archivedAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(archivedAt));
+
+        jdbcTemplate.update("insert into deliveries_archive (" + DELIVERY_COLUMNS + ", archived_at) " +
+                "select " + DELIVERY_COLUMNS + ", :archivedAt from deliveries where id in (:ids)", params);
+        jdbcTemplate.update("insert into status_history_archive (" + HISTORY_COLUMNS + ") " +
+                "select " + HISTORY_COLUMNS + " from status_history where delivery_id in (:ids)", params);
+        jdbcTemplate.update("delete from status_history where delivery_id in (:ids)", params);
+        jdbcTemplate.update("delete from deliveries where id in (:ids)", params);
+    }
+
+    // Index-only on both tables: the listing indexes end in updated_at
+    private ListingVersion findListingVersion(String ownerColumn, Long ownerId) {
+        return jdbcTemplate.queryForObject(
+                "select count(*), max(updated_at) from (" +
+                        "select updated_at from deliveries where " + ownerColumn + " = :ownerId " +
+                        "union all " +
+                        "select updated_at from deliveries_archive where " + ownerColumn + " = :ownerId) v",
+                new MapSqlParameterSource("ownerId", ownerId),
+                (rs, rowNum) -> new ListingVersion(rs.getLong(1), toLocalDateTime(rs.getTimestamp(2))));
+    }
+
+    private List<DeliveryDto> findPage(String where, Long ownerId, LocalDateTime createdAt, Long id, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ownerId", ownerId)
+                .addValue("limit", limit);
+        String sql = SELECT_DTO + where;
+        if (createdAt != null) {
+            params.addValue("createdAt", Timestamp.valueOf(createdAt)).addValue("id", id);
+            sql += KEYSET_AFTER;
+        }
+        return jdbcTemplate.query(sql + NEWEST_FIRST, params, DELIVERY_DTO);
+    }
+
+    private static DeliveryDto mapDelivery(ResultSet rs, int rowNum) throws SQLException {
+        return new DeliveryDto(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getBigDecimal(6),
+                DeliveryPriority.valueOf(rs.getString(7)),
+                rs.getString(8),
+                DeliveryStatus.valueOf(rs.getString(9)),
+                rs.getBigDecimal(10),
+                rs.getBigDecimal(11),
+                rs.getBigDecimal(12),
+                rs.getBigDecimal(13),
+                toLocalDateTime(rs.getTimestamp(14)),
+                toLocalDateTime(rs.getTimestamp(15)),
+                rs.getLong(16),
+                rs.getString(17),
+                rs.getString(18),
+                rs.getObject(19, Long.class),
+                rs.getString(20),
+                rs.getString(21));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -1,16 +1,148 @@
 package com.logistics.backend.repository;
 
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.dto.ListingVersion;
+import com.logistics.backend.dto.PendingDelivery;
 import com.logistics.backend.entity.Delivery;
 import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
-    List<Delivery> findByBusinessUserId(Long businessUserId);
-    List<Delivery> findByDriverId(Long driverId);
+
+    // Read paths project straight into DeliveryDto with a single joined select
+    String SELECT_DTO = "select new com.logistics.backend.dto.DeliveryDto(" +
+            "d.id, d.pickupAddress, d.dropAddress, d.customerName, d.customerPhone, d.weight, " +
+            "d.priority, d.notes, d.status, d.estimatedKm, d.estimatedCost, d.actualKm, d.actualCost, " +
+            "d.createdAt, d.updatedAt, b.id, b.email, b.fullName, dr.id, dr.email, dr.fullName) " +
+            "from Delivery d join d.businessUser b left join d.driver dr ";
+
+    // Derived queries would outer join users and filter on the join; compare the foreign keys directly
+    @Query("select d from Delivery d where d.businessUser.id = :businessUserId")
+    List<Delivery> findByBusinessUserId(@Param("businessUserId") Long businessUserId);
+
+    @Query("select d from Delivery d where d.driver.id = :driverId")
+    List<Delivery> findByDriverId(@Param("driverId") Long driverId);
+
     List<Delivery> findByStatus(DeliveryStatus status);
     List<Delivery> findByStatusAndDriverIsNull(DeliveryStatus status);
+
+    @Query("select d.status from Delivery d where d.id = :id")
+    Optional<DeliveryStatus> findStatusById(@Param("id") Long id);
+
+    @Query("select d.updatedAt from Delivery d where d.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // Conditional single-statement writes; a return value of 0 means the precondition no longer held.
+    // Status writes also match the updatedAt the caller read, so the row is unchanged since that read.
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Delivery d set d.status = :newStatus, d.updatedAt = :now " +
+            "where d.id = :id and d.status = :expectedStatus and d.updatedAt = :expectedUpdatedAt")
+    int updateStatusIfCurrent(
+            @Param("id") Long id,
+            @Param("expectedStatus") DeliveryStatus expectedStatus,
+            @Param("expectedUpdatedAt") LocalDateTime expectedUpdatedAt,
+            @Param("newStatus") DeliveryStatus newStatus,
+            @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Delivery d set d.status = :newStatus, d.actualKm = :actualKm, " +
+            "d.actualCost = :actualCost, d.updatedAt = :now " +
+            "where d.id = :id and d.status = :expectedStatus and d.updatedAt = :expectedUpdatedAt")
+    int completeIfCurrent(
+            @Param("id") Long id,
+            @Param("expectedStatus") DeliveryStatus expectedStatus,
+            @Param("expectedUpdatedAt") LocalDateTime expectedUpdatedAt,
+            @Param("newStatus") DeliveryStatus newStatus,
+            @Param("actualKm") BigDecimal actualKm,
+            @Param("actualCost") BigDecimal actualCost,
+            @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Delivery d set d.driver = :driver, d.updatedAt = :now " +
+            "where d.id = :id and d.driver is null and d.status = :status")
+    int assignDriverIfUnassigned(
+            @Param("id") Long id,
+            @Param("driver") User driver,
+            @Param("status") DeliveryStatus status,
+            @Param("now") LocalDateTime now);
+
+    @Query(SELECT_DTO + "where d.id = :id")
+    Optional<DeliveryDto> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "where d.status = :status and d.driver is null")
+    List<DeliveryDto> findDtosByStatusAndDriverIsNull(@Param("status") DeliveryStatus status);
+
+    @Query("select new com.logistics.backend.dto.PendingDelivery(d.id, d.priority, d.createdAt) " +
+            "from Delivery d where d.status = :status and d.driver is null")
+    List<PendingDelivery> findDispatchQueue(@Param("status") DeliveryStatus status);
+
+    // Rows of [driverId, count]
+    @Query("select d.driver.id, count(d) from Delivery d " +
+            "where d.driver is not null and d.status in :statuses group by d.driver.id")
+    List<Object[]> countByDriverAndStatusIn(@Param("statuses") Collection<DeliveryStatus> statuses);
+
+    @Query("select count(d) > 0 from Delivery d where d.businessUser.id = :businessUserId " +
+            "and d.driver.id = :driverId and d.status in :statuses")
+    boolean existsForBusinessUserAndDriver(
+            @Param("businessUserId") Long businessUserId,
+            @Param("driverId") Long driverId,
+            @Param("statuses") Collection<DeliveryStatus> statuses);
+
+    // Rows of [status, count]
+    @Query("select d.status, count(d) from Delivery d group by d.status")
+    List<Object[]> countByStatus();
+
+    @Query("select coalesce(sum(d.actualCost), 0) from Delivery d where d.status = :status")
+    BigDecimal sumActualCostByStatus(@Param("status") DeliveryStatus status);
+
+    // Assigned rows count too: assigning a driver sets updatedAt, so the version still moves
+    @Query("select new com.logistics.backend.dto.ListingVersion(count(d), max(d.updatedAt)) " +
+            "from Delivery d where d.status = :status")
+    ListingVersion findListingVersionByStatus(@Param("status") DeliveryStatus status);
+
+    // Keyset pages ordered by (createdAt, id) descending; the limit comes from the Pageable
+
+    @Query(SELECT_DTO + "where d.businessUser.id = :userId " +
+            "order by d.createdAt desc, d.id desc")
+    List<DeliveryDto> findFirstPageByBusinessUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(SELECT_DTO + "where d.businessUser.id = :userId " +
+            "and (d.createdAt < :createdAt or (d.createdAt = :createdAt and d.id < :id)) " +
+            "order by d.createdAt desc, d.id desc")
+    List<DeliveryDto> findPageByBusinessUserAfter(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(SELECT_DTO + "where d.driver.id = :driverId " +
+            "order by d.createdAt desc, d.id desc")
+    List<DeliveryDto> findFirstPageByDriver(@Param("driverId") Long driverId, Pageable pageable);
+
+    @Query(SELECT_DTO + "where d.driver.id = :driverId " +
+            "and (d.createdAt < :createdAt or (d.createdAt = :createdAt and d.id < :id)) " +
+            "order by d.createdAt desc, d.id desc")
+    List<DeliveryDto> findPageByDriverAfter(
+            @Param("driverId") Long driverId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
 }
@@ -1,12 +1,23 @@
 package com.logistics.backend.repository;
 
+import com.logistics.backend.dto.StatusHistoryDto;
 import com.logistics.backend.entity.StatusHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface StatusHistoryRepository extends JpaRepository<StatusHistory, Long> {
-    List<StatusHistory> findByDeliveryIdOrderByChangedAtDesc(Long deliveryId);
+    @Query("select h from StatusHistory h where h.delivery.id = :deliveryId order by h.changedAt desc")
+    List<StatusHistory> findByDeliveryIdOrderByChangedAtDesc(@Param("deliveryId") Long deliveryId);
+
+    // Reads changed_by as a plain id instead of loading the user
+    @Query("select new com.logistics.backend.dto.StatusHistoryDto(" +
+            "h.id, h.oldStatus, h.newStatus, h.changedBy.id, h.changedAt) " +
+            "from StatusHistory h where h.delivery.id = :deliveryId " +
+            "order by h.changedAt desc, h.id desc")
+    List<StatusHistoryDto> findTimeline(@Param("deliveryId") Long deliveryId);
 }
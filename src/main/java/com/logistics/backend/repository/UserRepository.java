@@ -2,15 +2,44 @@ package com.logistics.backend.repository;
 
 import com.logistics.backend.entity.User;
 import com.logistics.backend.entity.UserRole;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Single-user lookups are cached by id and by email; save() evicts both entries.
+    // Cached users are detached instances shared between threads; change a copy, never the returned instance.
+    // A miss runs in its own read-write transaction, so it reads the primary even inside a read-only
+    // transaction routed to a lagging replica. The caches are per instance and save() only evicts
+    // locally, so other instances may serve a changed user for up to the cache TTL (spring.cache.caffeine.spec).
+    String USERS_BY_ID = "usersById";
+    String USERS_BY_EMAIL = "usersByEmail";
+
+    @Override
+    @Cacheable(cacheNames = USERS_BY_ID, unless = "#result == null")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    Optional<User> findById(Long id);
+
+    @Cacheable(cacheNames = USERS_BY_EMAIL, unless = "#result == null")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     Optional<User> findByEmail(String email);
+
     List<User> findByRole(UserRole role);
     List<User> findByRoleAndIsActive(UserRole role, Boolean isActive);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = USERS_BY_ID, key = "#result.id"),
+            @CacheEvict(cacheNames = USERS_BY_EMAIL, key = "#result.email")
+    })
+    <S extends User> S save(S user);
 }
@@ -0,0 +1,39 @@
+package com.logistics.backend.security;
+
+import com.logistics.backend.entity.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal installed by {@link JwtAuthenticationFilter}, built from the token
+ * claims so controllers can read the caller's id and role without a lookup.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser {
+
+    private final Long id;
+    private final String email;
+    private final UserRole role;
+    // When the token this principal came from stops being accepted
+    private final Instant expiresAt;
+
+    public boolean hasRole(UserRole role) {
+        return this.role == role;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
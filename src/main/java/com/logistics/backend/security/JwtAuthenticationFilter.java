@@ -1,5 +1,8 @@
 package com.logistics.backend.security;
 
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,12 +18,19 @@ import java.io.IOException;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private static final String STREAM_PATH = "/api/deliveries/stream";
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenCache tokenCache;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -30,15 +40,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-                var userDetails = userDetailsService.loadUserByUsername(email);
+            AuthenticatedUser user = StringUtils.hasText(jwt) ? resolveUser(jwt) : null;
 
+            if (user != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails,
+                                user,
                                 null,
-                                userDetails.getAuthorities()
+                                user.getAuthorities()
                         );
 
                 authentication.setDetails(
@@ -48,17 +57,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception ex) {
-            System.err.println("Could not set user authentication: " + ex.getMessage());
+            log.error("Could not set user authentication", ex);
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private AuthenticatedUser resolveUser(String jwt) {
+        AuthenticatedUser cached = tokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = tokenProvider.parseToken(jwt);
+        if (claims == null) {
+            return null;
+        }
+
+        AuthenticatedUser user = tokenProvider.getUserFromClaims(claims);
+        if (user == null) {
+            return null;
+        }
+
+        // Only checked on a cache miss; deactivation evicts the cached tokens
+        long generation = tokenCache.generation(user.getEmail());
+        if (!userDetailsService.loadUserByUsername(user.getEmail()).isEnabled()) {
+            return null;
+        }
+
+        tokenCache.put(jwt, user, claims.getExpiration(), generation);
+        return user;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
+        // Browsers' EventSource cannot send headers, so the stream takes the token as a parameter
+        if (STREAM_PATH.equals(request.getServletPath())) {
+            return request.getParameter("access_token");
+        }
         return null;
     }
 }
@@ -0,0 +1,84 @@
+package com.logistics.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of already verified tokens and the principal they resolved to, so
+ * repeat requests with the same token skip signature checks and user lookups.
+ * Entries never outlive the token's own expiry.
+ */
+@Component
+public class TokenCache {
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, Entry> cache;
+
+    // Bumped by evictUser; a put that raced with an eviction sees the new value and backs out.
+    // Only evicted users get an entry, so this grows with deactivations, not with traffic.
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public AuthenticatedUser get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            cache.invalidate(token);
+            return null;
+        }
+        return entry.user;
+    }
+
+    /**
+     * Read before loading the user, and passed to {@link #put}, so that a
+     * deactivation landing in between is not undone by the put.
+     */
+    public long generation(String email) {
+        return generations.getOrDefault(email, 0L);
+    }
+
+    public void put(String token, AuthenticatedUser user, Date expiration, long generation) {
+        long expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        cache.put(token, new Entry(user, expiresAt));
+        if (generation(user.getEmail()) != generation) {
+            cache.invalidate(token);
+        }
+    }
+
+    public void evictUser(String email) {
+        generations.merge(email, 1L, Long::sum);
+        cache.asMap().values().removeIf(entry -> entry.user.getEmail().equals(email));
+    }
+
+    private static final class Entry {
+        private final AuthenticatedUser user;
+        private final long expiresAt;
+
+        private Entry(AuthenticatedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
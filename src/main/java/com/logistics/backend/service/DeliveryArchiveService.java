@@ -0,0 +1,82 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.repository.DeliveryArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves DELIVERED and CANCELLED deliveries that have not changed for
+ * archive.min-age-days, together with their status history, into the
+ * archive tables. Each chunk of archive.chunk-size deliveries is copied and
+ * deleted in its own transaction, so the job never holds long locks on the
+ * hot tables. Chunks are claimed with a locking read (archive.claim-lock), so
+ * every instance can run the job without two of them moving the same rows.
+ * Reads fall through to the archive, see DeliveryService and
+ * StatusHistoryService.
+ */
+@Service
+public class DeliveryArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryArchiveService.class);
+
+    private static final Set<DeliveryStatus> ARCHIVABLE_STATUSES =
+            EnumSet.of(DeliveryStatus.DELIVERED, DeliveryStatus.CANCELLED);
+
+    @Autowired
+    private DeliveryArchiveRepository archiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${archive.cron:0 30 2 * * *}")
+    public synchronized void archive() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        long started = System.currentTimeMillis();
+        int archived = 0;
+        int moved;
+        do {
+            moved = archiveChunk(cutoff);
+            archived += moved;
+        } while (moved == chunkSize);
+
+        if (archived > 0) {
+            log.info("Archived {} deliveries older than {} in {} ms",
+                    archived, cutoff, System.currentTimeMillis() - started);
+        }
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = archiveRepository.findArchivableIds(ARCHIVABLE_STATUSES, cutoff, chunkSize);
+            if (!ids.isEmpty()) {
+                archiveRepository.moveToArchive(ids, LocalDateTime.now());
+            }
+            return ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.entity.DeliveryPriority;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams RFC 4180 style CSV into delivery rows. The first line must be a
+ * header naming the DeliveryDto fields (pickupAddress, dropAddress,
+ * customerName, customerPhone, weight, priority, notes) in any order.
+ */
+@Component
+public class DeliveryCsvParser {
+
+    private static final String[] REQUIRED_COLUMNS = {
+            "pickupaddress", "dropaddress", "customername", "customerphone", "weight"
+    };
+
+    public static class Row {
+        private final DeliveryDto delivery;
+        private final String error;
+
+        Row(DeliveryDto delivery, String error) {
+            this.delivery = delivery;
+            this.error = error;
+        }
+
+        public DeliveryDto getDelivery() {
+            return delivery;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    public List<Row> parse(Reader source, int maxRows) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader
+                ? (BufferedReader) source
+                : new BufferedReader(source);
+
+        List<String> header = readRecord(reader);
+        if (header == null) {
+            throw new IllegalArgumentException("CSV body is empty");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + column);
+            }
+        }
+
+        List<Row> rows = new ArrayList<>();
+        List<String> record;
+        while ((record = readRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            if (rows.size() >= maxRows) {
+                throw new IllegalArgumentException("Bulk request exceeds " + maxRows + " rows");
+            }
+            rows.add(toRow(record, columns));
+        }
+        return rows;
+    }
+
+    private Row toRow(List<String> record, Map<String, Integer> columns) {
+        DeliveryDto dto = new DeliveryDto();
+        dto.setPickupAddress(field(record, columns, "pickupaddress"));
+        dto.setDropAddress(field(record, columns, "dropaddress"));
+        dto.setCustomerName(field(record, columns, "customername"));
+        dto.setCustomerPhone(field(record, columns, "customerphone"));
+        dto.setNotes(field(record, columns, "notes"));
+
+        String weight = field(record, columns, "weight");
+        if (weight != null) {
+            try {
+                dto.setWeight(new BigDecimal(weight));
+            } catch (NumberFormatException ex) {
+                return new Row(dto, "Invalid weight: " + weight);
+            }
+        }
+
+        String priority = field(record, columns, "priority");
+        if (priority != null) {
+            try {
+                dto.setPriority(DeliveryPriority.valueOf(priority.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                return new Row(dto, "Invalid priority: " + priority);
+            }
+        }
+        return new Row(dto, null);
+    }
+
+    private String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Returns the next record, or null at end of input. Quoted fields may span lines.
+    private List<String> readRecord(BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean sawAny = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            sawAny = true;
+            char ch = (char) c;
+            if (inQuotes) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                inQuotes = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+
+        if (!sawAny) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,366 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.dto.DeliveryStreamEvent;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.event.DeliveryEvent;
+import com.logistics.backend.exception.ServiceUnavailableException;
+import com.logistics.backend.security.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes delivery changes to connected clients over Server-Sent Events.
+ *
+ * Connections are async servlet requests, so an idle subscriber holds no
+ * thread. Each subscriber has a small buffer keyed by delivery id: a newer
+ * event for the same delivery replaces the older one, and when the buffer is
+ * full the oldest delivery is dropped, so a slow client only ever sees the
+ * latest state. Buffers are drained by a small shared pool, at most one task
+ * per subscriber at a time, so the pool's queue never holds more tasks than
+ * there are subscribers. Heartbeats ride on the same task and are skipped for
+ * a subscriber that is still being drained.
+ *
+ * Servlet writes block, so a client that stops reading holds a sender thread.
+ * A send that has not finished after write-timeout-ms drops its subscriber
+ * and the pool gets a replacement thread until that send returns, so a few
+ * stalled clients cannot starve everyone else.
+ *
+ * A stream never outlives the access token it was opened with. At the first
+ * heartbeat less than two intervals before the token expires the subscriber
+ * gets a "reauthenticate" event and the stream is closed; the client refreshes its token and opens a
+ * new stream. Otherwise the browser's automatic reconnect would resend the
+ * expired token and stop for good on the 401.
+ */
+@Service
+public class DeliveryEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryEventStream.class);
+
+    @Value("${delivery.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${delivery.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${delivery.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${delivery.stream.heartbeat-ms:25000}")
+    private long heartbeatMs;
+
+    @Value("${delivery.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${delivery.stream.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    // Replacement threads for sends stuck past the write timeout
+    @Value("${delivery.stream.max-stalled-senders:64}")
+    private int maxStalledSenders;
+
+    // Subscribers by user id; admins also sit in adminSubscribers
+    private final Map<Long, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+
+    private final Set<Subscriber> adminSubscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    public void init() {
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxSubscribers), runnable -> {
+                    Thread thread = new Thread(runnable, "delivery-stream-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public SseEmitter subscribe(AuthenticatedUser user) {
+        long lifetimeMs = timeoutMs;
+        if (user.getExpiresAt() != null) {
+            lifetimeMs = Math.min(timeoutMs, Math.max(user.getExpiresAt().toEpochMilli() - System.currentTimeMillis(), 1));
+        }
+        return subscribe(user, new SseEmitter(lifetimeMs));
+    }
+
+    // Package-private so tests can supply an emitter whose writes stall
+    SseEmitter subscribe(AuthenticatedUser user, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open delivery streams");
+        }
+
+        Subscriber subscriber = new Subscriber(user, emitter);
+
+        subscribersByUser.computeIfAbsent(user.getId(), id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        if (user.hasRole(UserRole.ADMIN)) {
+            adminSubscribers.add(subscriber);
+        }
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @EventListener
+    public void onDeliveryEvent(DeliveryEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+
+        DeliveryStreamEvent payload = DeliveryStreamEvent.from(event);
+        for (Subscriber subscriber : adminSubscribers) {
+            subscriber.offer(payload);
+        }
+        offerToUser(event.getBusinessUserId(), payload);
+        if (event.getDriverId() != null && !event.getDriverId().equals(event.getBusinessUserId())) {
+            offerToUser(event.getDriverId(), payload);
+        }
+    }
+
+    // Keeps idle connections open through proxies and surfaces dead ones
+    @Scheduled(fixedDelayString = "${delivery.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        // Two intervals: a late run of this fixed-delay job must not let a token lapse first
+        long lastSafeHeartbeat = System.currentTimeMillis() + 2 * heartbeatMs;
+        for (Set<Subscriber> subscribers : subscribersByUser.values()) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.tokenExpiresBefore(lastSafeHeartbeat)) {
+                    subscriber.requestReauthentication();
+                } else if (!subscriber.draining.get()) {
+                    // A subscriber still being drained is either receiving data or stalled
+                    subscriber.requestHeartbeat();
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.stream.write-check-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> subscribers : subscribersByUser.values()) {
+            for (Subscriber subscriber : subscribers) {
+                long started = subscriber.sendStartedNanos;
+                if (started != 0 && now - started > TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs)) {
+                    dropStalled(subscriber);
+                }
+            }
+        }
+    }
+
+    // The stuck send cannot be interrupted, so its thread is replaced until it returns
+    private void dropStalled(Subscriber subscriber) {
+        remove(subscriber);
+        log.info("Dropped delivery stream of user {}: no write progress for {} ms",
+                subscriber.user.getId(), writeTimeoutMs);
+        if (stalledSenders.incrementAndGet() <= maxStalledSenders) {
+            subscriber.holdsReplacement.set(true);
+            resizeSender(1);
+            // The send may have returned meanwhile and missed the flag
+            if (subscriber.sendStartedNanos == 0) {
+                subscriber.releaseReplacement();
+            }
+        } else {
+            stalledSenders.decrementAndGet();
+        }
+    }
+
+    private synchronized void resizeSender(int delta) {
+        int size = sender.getCorePoolSize() + delta;
+        if (delta > 0) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    private void offerToUser(Long userId, DeliveryStreamEvent payload) {
+        if (userId == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = subscribersByUser.get(userId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.user.hasRole(UserRole.ADMIN)) {
+                subscriber.offer(payload);
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        adminSubscribers.remove(subscriber);
+        subscribersByUser.computeIfPresent(subscriber.user.getId(), (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private final class Subscriber {
+        private final AuthenticatedUser user;
+        private final SseEmitter emitter;
+        // Guards the buffer and both flags, so a drain never exits with work left
+        private final LinkedHashMap<Long, DeliveryStreamEvent> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private boolean reauthenticationDue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Zero unless a send is in progress
+        private volatile long sendStartedNanos;
+        private final AtomicBoolean holdsReplacement = new AtomicBoolean();
+
+        private Subscriber(AuthenticatedUser user, SseEmitter emitter) {
+            this.user = user;
+            this.emitter = emitter;
+        }
+
+        private void offer(DeliveryStreamEvent event) {
+            synchronized (pending) {
+                // Re-inserting moves the delivery to the back, behind older changes
+                pending.remove(event.getDeliveryId());
+                if (pending.size() >= bufferSize) {
+                    Iterator<Long> oldest = pending.keySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+                pending.put(event.getDeliveryId(), event);
+            }
+            schedule();
+        }
+
+        private void requestHeartbeat() {
+            synchronized (pending) {
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        private void requestReauthentication() {
+            synchronized (pending) {
+                reauthenticationDue = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed.get() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                draining.set(false);
+                remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    List<DeliveryStreamEvent> batch;
+                    boolean heartbeat;
+                    boolean reauthenticate;
+                    synchronized (pending) {
+                        if (pending.isEmpty() && !heartbeatDue && !reauthenticationDue) {
+                            draining.set(false);
+                            return;
+                        }
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                        // Any event keeps the connection alive as well as a heartbeat would
+                        heartbeat = heartbeatDue && batch.isEmpty();
+                        heartbeatDue = false;
+                        reauthenticate = reauthenticationDue;
+                    }
+                    if (reauthenticate) {
+                        send(SseEmitter.event().name("reauthenticate").data("access token expiring"));
+                        remove(this);
+                        emitter.complete();
+                        break;
+                    }
+                    for (DeliveryStreamEvent event : batch) {
+                        if (closed.get()) {
+                            break;
+                        }
+                        send(SseEmitter.event()
+                                .name("delivery")
+                                .id(String.valueOf(event.getDeliveryId()))
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                    if (heartbeat) {
+                        send(SseEmitter.event().comment("keep-alive"));
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                remove(this);
+            }
+            draining.set(false);
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStartedNanos = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                sendStartedNanos = 0;
+                releaseReplacement();
+            }
+        }
+
+        private void releaseReplacement() {
+            if (holdsReplacement.compareAndSet(true, false)) {
+                stalledSenders.decrementAndGet();
+                resizeSender(-1);
+            }
+        }
+
+        private boolean tokenExpiresBefore(long epochMillis) {
+            return user.getExpiresAt() != null && user.getExpiresAt().toEpochMilli() <= epochMillis;
+        }
+    }
+}
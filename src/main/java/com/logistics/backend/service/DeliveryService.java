@@ -1,140 +1,499 @@
 package com.logistics.backend.service;
 
+import com.logistics.backend.dto.BulkDeliveryResponse;
+import com.logistics.backend.dto.BulkDeliveryResult;
 import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.dto.DeliveryPage;
+import com.logistics.backend.dto.QuoteItem;
+import com.logistics.backend.dto.QuoteResult;
 import com.logistics.backend.dto.StatusUpdateRequest;
 import com.logistics.backend.dto.UserDto;
 import com.logistics.backend.entity.*;
+import com.logistics.backend.event.DeliveryEvent;
+import com.logistics.backend.exception.ConflictException;
 import com.logistics.backend.exception.ResourceNotFoundException;
+import com.logistics.backend.geo.DistanceService;
+import com.logistics.backend.tariff.CompiledTariff;
+import com.logistics.backend.tariff.TariffEngine;
+import com.logistics.backend.repository.DeliveryArchiveRepository;
 import com.logistics.backend.repository.DeliveryRepository;
-import com.logistics.backend.repository.StatusHistoryRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class DeliveryService {
 
+    // Tagged with class and method by TimedAspect
+    private static final String SERVICE_TIMER = "delivery.service";
+
+    private static final Comparator<DeliveryDto> NEWEST_FIRST = Comparator
+            .comparing(DeliveryDto::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(DeliveryDto::getId, Comparator.reverseOrder());
+
     @Autowired
     private DeliveryRepository deliveryRepository;
 
     @Autowired
-    private StatusHistoryRepository statusHistoryRepository;
+    private DeliveryArchiveRepository archiveRepository;
+
+    @Autowired
+    private StatusHistoryWriter statusHistoryWriter;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DistanceService distanceService;
+
+    @Autowired
+    private TariffEngine tariffEngine;
+
+    @Autowired
+    private DeliveryCsvParser csvParser;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${tariff.quote.max-items:5000}")
+    private int quoteMaxItems;
+
+    @Value("${delivery.bulk.batch-size:500}")
+    private int bulkBatchSize;
+
+    @Value("${delivery.bulk.max-rows:10000}")
+    private int bulkMaxRows;
+
+    @Value("${delivery.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${delivery.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${delivery.status-update.attempts:3}")
+    private int statusUpdateAttempts;
+
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
     public DeliveryDto createDelivery(DeliveryDto deliveryDto, Long businessUserId) {
-        Delivery delivery = new Delivery();
+        User businessUser = userService.getUserEntityById(businessUserId);
+        Delivery delivery = buildDelivery(deliveryDto, businessUser);
+
+        Delivery savedDelivery = deliveryRepository.save(delivery);
+        eventPublisher.publishEvent(DeliveryEvent.created(savedDelivery));
+        return convertToDto(savedDelivery);
+    }
+
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
+    public BulkDeliveryResponse createDeliveries(List<DeliveryDto> deliveryDtos, Long businessUserId) {
+        if (deliveryDtos.size() > bulkMaxRows) {
+            throw new IllegalArgumentException("Bulk request exceeds " + bulkMaxRows + " rows");
+        }
+        List<String> noParseErrors = new ArrayList<>(deliveryDtos.size());
+        for (int i = 0; i < deliveryDtos.size(); i++) {
+            noParseErrors.add(null);
+        }
+        return ingest(deliveryDtos, noParseErrors, businessUserId);
+    }
+
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
+    public BulkDeliveryResponse createDeliveriesFromCsv(Reader csv, Long businessUserId) throws IOException {
+        List<DeliveryCsvParser.Row> rows = csvParser.parse(csv, bulkMaxRows);
+        List<DeliveryDto> deliveryDtos = new ArrayList<>(rows.size());
+        List<String> parseErrors = new ArrayList<>(rows.size());
+        for (DeliveryCsvParser.Row row : rows) {
+            deliveryDtos.add(row.getDelivery());
+            parseErrors.add(row.getError());
+        }
+        return ingest(deliveryDtos, parseErrors, businessUserId);
+    }
 
+    /**
+     * Validates and prices every row, then inserts the valid ones in chunks of
+     * delivery.bulk.batch-size, one transaction and one JDBC batch per chunk.
+     * A failing chunk is reported row by row and does not roll back the others.
+     */
+    private BulkDeliveryResponse ingest(List<DeliveryDto> deliveryDtos, List<String> parseErrors, Long businessUserId) {
         User businessUser = userService.getUserEntityById(businessUserId);
+
+        BulkDeliveryResult[] results = new BulkDeliveryResult[deliveryDtos.size()];
+        List<Integer> chunkRows = new ArrayList<>(bulkBatchSize);
+        List<Delivery> chunk = new ArrayList<>(bulkBatchSize);
+
+        for (int i = 0; i < deliveryDtos.size(); i++) {
+            DeliveryDto dto = deliveryDtos.get(i);
+            String error = parseErrors.get(i);
+            if (error == null) {
+                error = validate(dto);
+            }
+            if (error != null) {
+                results[i] = new BulkDeliveryResult(i + 1, BulkDeliveryResult.Outcome.REJECTED, null, error);
+                continue;
+            }
+
+            Delivery delivery;
+            try {
+                delivery = buildDelivery(dto, businessUser);
+            } catch (IllegalArgumentException ex) {
+                results[i] = new BulkDeliveryResult(i + 1, BulkDeliveryResult.Outcome.REJECTED, null, ex.getMessage());
+                continue;
+            }
+
+            chunkRows.add(i);
+            chunk.add(delivery);
+            if (chunk.size() == bulkBatchSize) {
+                insertChunk(chunk, chunkRows, results);
+                chunk = new ArrayList<>(bulkBatchSize);
+                chunkRows = new ArrayList<>(bulkBatchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, chunkRows, results);
+        }
+
+        int created = 0;
+        int rejected = 0;
+        int failed = 0;
+        for (BulkDeliveryResult result : results) {
+            if (result.getOutcome() == BulkDeliveryResult.Outcome.CREATED) {
+                created++;
+            } else if (result.getOutcome() == BulkDeliveryResult.Outcome.REJECTED) {
+                rejected++;
+            } else {
+                failed++;
+            }
+        }
+        return new BulkDeliveryResponse(results.length, created, rejected, failed, List.of(results));
+    }
+
+    private void insertChunk(List<Delivery> chunk, List<Integer> chunkRows, BulkDeliveryResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Delivery delivery : chunk) {
+                    entityManager.persist(delivery);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                int row = chunkRows.get(i);
+                results[row] = new BulkDeliveryResult(
+                        row + 1, BulkDeliveryResult.Outcome.CREATED, chunk.get(i).getId(), null);
+                eventPublisher.publishEvent(DeliveryEvent.created(chunk.get(i)));
+            }
+        } catch (RuntimeException ex) {
+            for (int row : chunkRows) {
+                results[row] = new BulkDeliveryResult(
+                        row + 1, BulkDeliveryResult.Outcome.FAILED, null, ex.getMessage());
+            }
+        }
+    }
+
+    private String validate(DeliveryDto dto) {
+        if (dto == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<DeliveryDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.iterator().next().getMessage();
+    }
+
+    private Delivery buildDelivery(DeliveryDto deliveryDto, User businessUser) {
+        Delivery delivery = new Delivery();
         delivery.setBusinessUser(businessUser);
 
+        DeliveryPriority priority = deliveryDto.getPriority() != null
+                ? deliveryDto.getPriority()
+                : DeliveryPriority.MEDIUM;
+
         delivery.setPickupAddress(deliveryDto.getPickupAddress());
         delivery.setDropAddress(deliveryDto.getDropAddress());
         delivery.setCustomerName(deliveryDto.getCustomerName());
         delivery.setCustomerPhone(deliveryDto.getCustomerPhone());
         delivery.setWeight(deliveryDto.getWeight());
-        delivery.setPriority(deliveryDto.getPriority());
+        delivery.setPriority(priority);
         delivery.setNotes(deliveryDto.getNotes());
 
-        delivery.setEstimatedCost(calculateCost(deliveryDto.getWeight(), deliveryDto.getPriority()));
+        BigDecimal estimatedKm = distanceService
+                .estimateKm(deliveryDto.getPickupAddress(), deliveryDto.getDropAddress())
+                .orElse(null);
+        delivery.setEstimatedKm(estimatedKm);
+        delivery.setEstimatedCost(tariffEngine.price(businessUser.getId(), deliveryDto.getWeight(), priority, estimatedKm));
+        return delivery;
+    }
 
-        Delivery savedDelivery = deliveryRepository.save(delivery);
-        return convertToDto(savedDelivery);
+    /**
+     * Prices hypothetical shipments against the caller's rate card without
+     * creating anything. Items that cannot be priced carry an error instead.
+     */
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
+    public List<QuoteResult> quote(List<QuoteItem> items, Long businessUserId) {
+        if (items.size() > quoteMaxItems) {
+            throw new IllegalArgumentException("Quote request exceeds " + quoteMaxItems + " items");
+        }
+
+        CompiledTariff tariff = tariffEngine.tariffFor(businessUserId);
+        List<QuoteResult> results = new ArrayList<>(items.size());
+        for (QuoteItem item : items) {
+            if (item == null || item.getWeight() == null || item.getWeight().signum() <= 0) {
+                results.add(new QuoteResult(null, null, "Weight must be positive"));
+                continue;
+            }
+
+            BigDecimal estimatedKm = item.getEstimatedKm();
+            if (estimatedKm != null && estimatedKm.signum() < 0) {
+                results.add(new QuoteResult(null, null, "Estimated km must not be negative"));
+                continue;
+            }
+            if (estimatedKm == null) {
+                estimatedKm = distanceService.estimateKm(item.getPickupAddress(), item.getDropAddress()).orElse(null);
+            }
+
+            try {
+                results.add(new QuoteResult(estimatedKm, tariff.price(item.getWeight(), item.getPriority(), estimatedKm), null));
+            } catch (IllegalArgumentException ex) {
+                results.add(new QuoteResult(estimatedKm, null, ex.getMessage()));
+            }
+        }
+        return results;
     }
 
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
     public DeliveryDto getDeliveryById(Long id) {
-        Delivery delivery = deliveryRepository.findById(id)
+        return deliveryRepository.findDtoById(id)
+                .or(() -> archiveRepository.findDtoById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + id));
-        return convertToDto(delivery);
     }
 
-    public List<DeliveryDto> getDeliveriesByBusinessUser(Long businessUserId) {
-        List<Delivery> deliveries = deliveryRepository.findByBusinessUserId(businessUserId);
-        return deliveries.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    // Cheap probe for conditional GETs; empty if the delivery does not exist
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
+    public Optional<LocalDateTime> getDeliveryUpdatedAt(Long id) {
+        return deliveryRepository.findUpdatedAtById(id)
+                .or(() -> archiveRepository.findUpdatedAtById(id));
     }
 
-    public List<DeliveryDto> getDeliveriesByDriver(Long driverId) {
-        List<Delivery> deliveries = deliveryRepository.findByDriverId(driverId);
-        return deliveries.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
+    public DeliveryPage getDeliveriesByBusinessUser(Long businessUserId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<DeliveryDto> deliveries;
+        List<DeliveryDto> archived;
+        if (cursor == null) {
+            deliveries = deliveryRepository.findFirstPageByBusinessUser(businessUserId, limit);
+            archived = archiveRepository.findPageByBusinessUser(businessUserId, null, null, pageSize + 1);
+        } else {
+            DeliveryCursor after = DeliveryCursor.decode(cursor);
+            deliveries = deliveryRepository.findPageByBusinessUserAfter(
+                    businessUserId, after.getCreatedAt(), after.getId(), limit);
+            archived = archiveRepository.findPageByBusinessUser(
+                    businessUserId, after.getCreatedAt(), after.getId(), pageSize + 1);
+        }
+        return toPage(mergeNewestFirst(deliveries, archived, pageSize + 1), pageSize);
     }
 
-    public DeliveryDto assignDriver(Long deliveryId, Long driverId) {
-        Delivery delivery = deliveryRepository.findById(deliveryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Delivery not found"));
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
+    public DeliveryPage getDeliveriesByDriver(Long driverId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<DeliveryDto> deliveries;
+        List<DeliveryDto> archived;
+        if (cursor == null) {
+            deliveries = deliveryRepository.findFirstPageByDriver(driverId, limit);
+            archived = archiveRepository.findPageByDriver(driverId, null, null, pageSize + 1);
+        } else {
+            DeliveryCursor after = DeliveryCursor.decode(cursor);
+            deliveries = deliveryRepository.findPageByDriverAfter(
+                    driverId, after.getCreatedAt(), after.getId(), limit);
+            archived = archiveRepository.findPageByDriver(
+                    driverId, after.getCreatedAt(), after.getId(), pageSize + 1);
+        }
+        return toPage(mergeNewestFirst(deliveries, archived, pageSize + 1), pageSize);
+    }
 
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
+    public DeliveryDto assignDriver(Long deliveryId, Long driverId) {
         User driver = userService.getUserEntityById(driverId);
         if (driver.getRole() != UserRole.DRIVER) {
             throw new IllegalArgumentException("User is not a driver");
         }
+        if (!Boolean.TRUE.equals(driver.getIsActive())) {
+            throw new IllegalArgumentException("Driver is not active");
+        }
 
-        delivery.setDriver(driver);
-        Delivery updatedDelivery = deliveryRepository.save(delivery);
+        int updated = deliveryRepository.assignDriverIfUnassigned(
+                deliveryId, driver, DeliveryStatus.PENDING, LocalDateTime.now());
+        if (updated == 0) {
+            deliveryRepository.findStatusById(deliveryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Delivery not found"));
+            throw new ConflictException("Delivery " + deliveryId + " already has a driver or is no longer pending");
+        }
 
-        return convertToDto(updatedDelivery);
+        DeliveryDto assigned = getDeliveryById(deliveryId);
+        eventPublisher.publishEvent(DeliveryEvent.of(DeliveryEvent.Type.ASSIGNED, assigned, DeliveryStatus.PENDING));
+        return assigned;
     }
 
+    /**
+     * Reads the delivery once and applies the status change as a single
+     * conditional UPDATE guarded by the status and updatedAt that were read,
+     * so concurrent writers cannot overwrite each other and the returned DTO
+     * and event are built from the row as written, without reading it back.
+     * Invalid transitions are reported as conflicts; a write that lost to a
+     * change which still allows the transition is retried from a fresh read.
+     */
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
     public DeliveryDto updateDeliveryStatus(
             Long deliveryId,
             StatusUpdateRequest request,
             Long userId) {
-        Delivery delivery = deliveryRepository.findById(deliveryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Delivery not found"));
+        DeliveryStatus newStatus = request.getNewStatus();
+        if (newStatus.getAllowedPredecessors().isEmpty()) {
+            throw new ConflictException("Deliveries cannot be moved to " + newStatus);
+        }
 
-        DeliveryStatus oldStatus = delivery.getStatus();
-        delivery.setStatus(request.getNewStatus());
+        for (int attempt = 1; ; attempt++) {
+            DeliveryDto delivery = deliveryRepository.findDtoById(deliveryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Delivery not found"));
+            DeliveryStatus expectedStatus = delivery.getStatus();
+            if (!expectedStatus.canTransitionTo(newStatus)) {
+                throw invalidTransition(deliveryId, expectedStatus, newStatus);
+            }
+
+            // Truncated to what datetime(6) stores, so the DTO matches a later read
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            int updated;
+            if (newStatus == DeliveryStatus.DELIVERED) {
+                updated = deliveryRepository.completeIfCurrent(deliveryId, expectedStatus, delivery.getUpdatedAt(),
+                        newStatus, request.getActualKm(), request.getActualCost(), now);
+            } else {
+                updated = deliveryRepository.updateStatusIfCurrent(
+                        deliveryId, expectedStatus, delivery.getUpdatedAt(), newStatus, now);
+            }
 
-        if (request.getNewStatus() == DeliveryStatus.DELIVERED) {
-            if (request.getActualKm() != null) {
-                delivery.setActualKm(request.getActualKm());
+            if (updated == 1) {
+                delivery.setStatus(newStatus);
+                delivery.setUpdatedAt(now);
+                if (newStatus == DeliveryStatus.DELIVERED) {
+                    delivery.setActualKm(request.getActualKm());
+                    delivery.setActualCost(request.getActualCost());
+                }
+                statusHistoryWriter.enqueue(new StatusHistoryRecord(
+                        deliveryId,
+                        expectedStatus.toString(),
+                        newStatus.toString(),
+                        userId,
+                        now));
+                eventPublisher.publishEvent(DeliveryEvent.of(DeliveryEvent.Type.STATUS_CHANGED, delivery, expectedStatus));
+                return delivery;
             }
-            if (request.getActualCost() != null) {
-                delivery.setActualCost(request.getActualCost());
+            if (attempt == statusUpdateAttempts) {
+                throw new ConflictException("Delivery " + deliveryId + " kept changing, try again");
             }
         }
+    }
 
-        Delivery updatedDelivery = deliveryRepository.save(delivery);
-
-        User changedBy = userService.getUserEntityById(userId);
-        StatusHistory history = new StatusHistory();
-        history.setDelivery(delivery);
-        history.setOldStatus(oldStatus.toString());
-        history.setNewStatus(request.getNewStatus().toString());
-        history.setChangedBy(changedBy);
-        statusHistoryRepository.save(history);
+    private ConflictException invalidTransition(Long deliveryId, DeliveryStatus from, DeliveryStatus to) {
+        return new ConflictException("Delivery " + deliveryId + " cannot move from " + from + " to " + to);
+    }
 
-        return convertToDto(updatedDelivery);
+    // Whether the business user has a delivery the driver is still working on
+    @Transactional(readOnly = true)
+    public boolean hasActiveDeliveryWithDriver(Long businessUserId, Long driverId) {
+        return deliveryRepository.existsForBusinessUserAndDriver(businessUserId, driverId,
+                EnumSet.of(DeliveryStatus.PENDING, DeliveryStatus.ACCEPTED, DeliveryStatus.ON_WAY));
     }
 
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, percentiles = {0.5, 0.99})
     public List<DeliveryDto> getPendingDeliveries() {
-        List<Delivery> deliveries = deliveryRepository.findByStatusAndDriverIsNull(DeliveryStatus.PENDING);
-        return deliveries.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return deliveryRepository.findDtosByStatusAndDriverIsNull(DeliveryStatus.PENDING);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
     }
 
-    private BigDecimal calculateCost(BigDecimal weight, DeliveryPriority priority) {
-        BigDecimal baseCost = new BigDecimal("50");
-        BigDecimal weightCost = weight.multiply(new BigDecimal("10"));
-        BigDecimal totalCost = baseCost.add(weightCost);
+    /**
+     * Merges two lists already in (createdAt, id) descending order, keeping
+     * at most limit items. Archived deliveries are usually older than the
+     * hot ones, but a long-running delivery can be older than an archived one.
+     */
+    private List<DeliveryDto> mergeNewestFirst(List<DeliveryDto> hot, List<DeliveryDto> archived, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
 
-        if (priority == DeliveryPriority.HIGH) {
-            totalCost = totalCost.multiply(new BigDecimal("1.5"));
-        } else if (priority == DeliveryPriority.MEDIUM) {
-            totalCost = totalCost.multiply(new BigDecimal("1.2"));
+        List<DeliveryDto> merged = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        int h = 0;
+        int a = 0;
+        while (merged.size() < limit && (h < hot.size() || a < archived.size())) {
+            if (a >= archived.size() || (h < hot.size() && NEWEST_FIRST.compare(hot.get(h), archived.get(a)) <= 0)) {
+                merged.add(hot.get(h++));
+            } else {
+                merged.add(archived.get(a++));
+            }
         }
+        return merged;
+    }
+
+    // Callers fetch one extra row so we know whether another page exists
+    private DeliveryPage toPage(List<DeliveryDto> deliveries, int pageSize) {
+        boolean hasMore = deliveries.size() > pageSize;
+        List<DeliveryDto> items = hasMore ? deliveries.subList(0, pageSize) : deliveries;
 
-        return totalCost;
+        String nextCursor = null;
+        if (hasMore) {
+            DeliveryDto last = items.get(items.size() - 1);
+            nextCursor = new DeliveryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new DeliveryPage(items, nextCursor);
     }
 
-    private DeliveryDto convertToDto(Delivery delivery) {
+    // Package-private so the JMH benchmarks in src/jmh can call it directly
+    DeliveryDto convertToDto(Delivery delivery) {
         DeliveryDto dto = new DeliveryDto();
         dto.setId(delivery.getId());
         dto.setPickupAddress(delivery.getPickupAddress());
@@ -0,0 +1,230 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.dto.DeliveryStats;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.event.DeliveryEvent;
+import com.logistics.backend.repository.DeliveryArchiveRepository;
+import com.logistics.backend.repository.DeliveryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin KPIs kept in the delivery_stats table and in memory instead of table
+ * scans.
+ *
+ * Every instance counts the DeliveryEvents it publishes itself as deltas.
+ * Every stats.flush-interval-ms those deltas are added to delivery_stats with
+ * stat_value = stat_value + delta, so instances never overwrite each other,
+ * and the whole table is read back as the new base. Between flushes an
+ * instance therefore reports the shared totals as of its last flush plus its
+ * own changes since; other instances' changes show up after their next flush
+ * and this one's. The table is seeded from aggregate queries over the hot and
+ * archived deliveries when it is empty; delete its rows to rebuild it at the
+ * next startup. Revenue is held in cents so it fits a bigint.
+ */
+@Service
+public class DeliveryStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryStatsService.class);
+
+    private static final String STATUS_KEY = "status:";
+    private static final String REVENUE_KEY = "revenue_cents";
+    private static final String DRIVER_COMPLETED_KEY = "driver_completed:";
+
+    private static final String ADD_SQL =
+            "insert into delivery_stats (stat_key, stat_value, updated_at) values (?, ?, ?) " +
+            "on duplicate key update stat_value = stat_value + values(stat_value), updated_at = values(updated_at)";
+
+    // Seeding must not clobber rows another instance wrote first
+    private static final String SEED_SQL =
+            "insert into delivery_stats (stat_key, stat_value, updated_at) values (?, ?, ?) " +
+            "on duplicate key update stat_value = stat_value";
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DeliveryArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Shared totals as of the last successful read of delivery_stats
+    private volatile Map<String, Long> base = new HashMap<>();
+
+    // This instance's changes not yet added to delivery_stats
+    private final Map<String, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastFlushedAt;
+
+    // Runs before the web server accepts requests, so no events are missed.
+    // Archiving only moves rows, so hot and archived totals are simply added.
+    @PostConstruct
+    public void rebuild() {
+        Long rows = jdbcTemplate.queryForObject("select count(*) from delivery_stats", Long.class);
+        if (rows == null || rows == 0) {
+            seed();
+        }
+        base = readTable();
+    }
+
+    @EventListener
+    public void onDeliveryEvent(DeliveryEvent event) {
+        DeliveryStatus oldStatus = event.getOldStatus();
+        DeliveryStatus newStatus = event.getNewStatus();
+
+        if (event.getType() == DeliveryEvent.Type.CREATED) {
+            add(STATUS_KEY + newStatus.name(), 1);
+            return;
+        }
+
+        // Assignment leaves the status unchanged
+        if (oldStatus == null || oldStatus == newStatus) {
+            return;
+        }
+        add(STATUS_KEY + oldStatus.name(), -1);
+        add(STATUS_KEY + newStatus.name(), 1);
+
+        if (newStatus == DeliveryStatus.DELIVERED) {
+            add(REVENUE_KEY, toCents(event.getActualCost()));
+            if (event.getDriverId() != null) {
+                add(DRIVER_COMPLETED_KEY + event.getDriverId(), 1);
+            }
+        }
+    }
+
+    public DeliveryStats getStats() {
+        Map<String, Long> values = new HashMap<>(base);
+        pending.forEach((key, delta) -> values.merge(key, delta.get(), Long::sum));
+
+        Map<DeliveryStatus, Long> counts = new EnumMap<>(DeliveryStatus.class);
+        long total = 0;
+        for (DeliveryStatus status : DeliveryStatus.values()) {
+            long count = values.getOrDefault(STATUS_KEY + status.name(), 0L);
+            counts.put(status, count);
+            total += count;
+        }
+
+        Map<Long, Long> completed = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (key.startsWith(DRIVER_COMPLETED_KEY)) {
+                completed.put(Long.valueOf(key.substring(DRIVER_COMPLETED_KEY.length())), value);
+            }
+        });
+
+        return new DeliveryStats(
+                counts,
+                total,
+                BigDecimal.valueOf(values.getOrDefault(REVENUE_KEY, 0L), 2),
+                completed,
+                lastFlushedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        Map<String, Long> deltas = new HashMap<>();
+        pending.forEach((key, delta) -> {
+            long value = delta.getAndSet(0);
+            if (value != 0) {
+                deltas.put(key, value);
+            }
+        });
+
+        if (!deltas.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(deltas.size());
+            deltas.forEach((key, value) -> rows.add(new Object[]{key, value, now}));
+            try {
+                jdbcTemplate.batchUpdate(ADD_SQL, rows);
+            } catch (DataAccessException ex) {
+                // Keep the deltas for the next flush
+                deltas.forEach(this::add);
+                log.warn("Could not flush {} delivery stats: {}", deltas.size(), ex.getMessage());
+                return;
+            }
+        }
+
+        try {
+            base = readTable();
+        } catch (DataAccessException ex) {
+            log.warn("Could not read delivery stats: {}", ex.getMessage());
+            return;
+        }
+        lastFlushedAt = LocalDateTime.now();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void seed() {
+        Map<String, Long> values = new HashMap<>();
+        for (DeliveryStatus status : DeliveryStatus.values()) {
+            values.put(STATUS_KEY + status.name(), 0L);
+        }
+        addRows(values, STATUS_KEY, deliveryRepository.countByStatus());
+        addRows(values, STATUS_KEY, archiveRepository.countByStatus());
+
+        values.put(REVENUE_KEY, toCents(deliveryRepository.sumActualCostByStatus(DeliveryStatus.DELIVERED))
+                + toCents(archiveRepository.sumActualCostByStatus(DeliveryStatus.DELIVERED)));
+
+        addRows(values, DRIVER_COMPLETED_KEY,
+                deliveryRepository.countByDriverAndStatusIn(EnumSet.of(DeliveryStatus.DELIVERED)));
+        addRows(values, DRIVER_COMPLETED_KEY, archiveRepository.countByDriverAndStatus(DeliveryStatus.DELIVERED));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(values.size());
+        values.forEach((key, value) -> rows.add(new Object[]{key, value, now}));
+        jdbcTemplate.batchUpdate(SEED_SQL, rows);
+        log.info("Seeded delivery_stats with {} keys", rows.size());
+    }
+
+    private Map<String, Long> readTable() {
+        Map<String, Long> values = new HashMap<>();
+        jdbcTemplate.query("select stat_key, stat_value from delivery_stats", rs -> {
+            values.put(rs.getString(1), rs.getLong(2));
+        });
+        return values;
+    }
+
+    private void add(String key, long delta) {
+        pending.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    // Rows of [status or driver id, count]
+    private static void addRows(Map<String, Long> values, String prefix, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String key = prefix + (row[0] instanceof DeliveryStatus ? ((DeliveryStatus) row[0]).name() : row[0]);
+            values.merge(key, (Long) row[1], Long::sum);
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+}
@@ -0,0 +1,85 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.dto.ListingVersion;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.DeliveryArchiveRepository;
+import com.logistics.backend.repository.DeliveryRepository;
+import com.logistics.backend.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * ETags for the delivery read endpoints, computed without loading deliveries.
+ *
+ * A single delivery is versioned by its updatedAt. A listing is versioned by
+ * the number of deliveries it covers and the newest updatedAt among them,
+ * read from the database with one index-only aggregate, so every instance
+ * agrees and writes made elsewhere are seen at once. Every write to a
+ * delivery sets its updatedAt, so an insert or update raises the maximum
+ * and a removal lowers the count. Writers on different instances stamp
+ * updatedAt with their own clocks, which are assumed to be kept in sync.
+ *
+ * ETags are weak because Tomcat gzips these responses, so the same content
+ * goes out in more than one encoding.
+ */
+@Component
+public class DeliveryVersions {
+
+    private static final ListingVersion EMPTY = new ListingVersion(0, null);
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DeliveryArchiveRepository archiveRepository;
+
+    // With read replicas, a listing read right after a change may still be stale;
+    // no ETag is issued inside this window so the stale copy is not cached
+    @Value("${delivery.etag.settle-ms:0}")
+    private long settleMs;
+
+    public static String deliveryEtag(Long id, LocalDateTime updatedAt) {
+        return "W/\"" + id + "-" + Long.toString(toMicros(updatedAt), 36) + "\"";
+    }
+
+    /**
+     * ETag for the user's listing page, or null while the listing may not yet
+     * reflect the latest change.
+     */
+    public String listingEtag(AuthenticatedUser user, String cursor, Integer size) {
+        ListingVersion version = listingVersion(user);
+        LocalDateTime lastUpdatedAt = version.getLastUpdatedAt();
+        if (settleMs > 0 && lastUpdatedAt != null
+                && lastUpdatedAt.isAfter(LocalDateTime.now().minus(settleMs, ChronoUnit.MILLIS))) {
+            return null;
+        }
+        long micros = lastUpdatedAt != null ? toMicros(lastUpdatedAt) : 0;
+        int page = Objects.hash(user.getId(), user.getRole(), cursor, size);
+        return "W/\"" + version.getCount() + "-" + Long.toString(micros, 36) + "-" + Integer.toHexString(page) + "\"";
+    }
+
+    private ListingVersion listingVersion(AuthenticatedUser user) {
+        if (user.hasRole(UserRole.ADMIN)) {
+            // The admin listing is the pending deliveries, which are never archived
+            return deliveryRepository.findListingVersionByStatus(DeliveryStatus.PENDING);
+        }
+        if (user.hasRole(UserRole.BUSINESS_USER)) {
+            return archiveRepository.findListingVersionByBusinessUser(user.getId());
+        }
+        if (user.hasRole(UserRole.DRIVER)) {
+            return archiveRepository.findListingVersionByDriver(user.getId());
+        }
+        return EMPTY;
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+}
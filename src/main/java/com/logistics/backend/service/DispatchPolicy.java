@@ -0,0 +1,8 @@
+package com.logistics.backend.service;
+
+public enum DispatchPolicy {
+    // Driver with the fewest active deliveries
+    LEAST_LOADED,
+    // Next driver in turn that still has capacity
+    ROUND_ROBIN
+}
@@ -0,0 +1,341 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.dto.DispatchStats;
+import com.logistics.backend.dto.PendingDelivery;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.event.DeliveryEvent;
+import com.logistics.backend.exception.ConflictException;
+import com.logistics.backend.exception.ResourceNotFoundException;
+import com.logistics.backend.repository.DeliveryRepository;
+import com.logistics.backend.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background dispatcher that assigns pending deliveries to active drivers.
+ *
+ * Pending deliveries sit in an in-memory priority queue (HIGH first, then
+ * oldest) kept current by DeliveryEvents; driver load is the number of
+ * non-terminal deliveries assigned to each active driver. Each cycle assigns
+ * up to dispatch.batch-size deliveries through DeliveryService.assignDriver,
+ * whose conditional update makes a race with a manual assignment harmless.
+ * Both structures are rebuilt from the database at startup and then every
+ * dispatch.refresh-interval-ms. The figures in {@link #getStats()} are also
+ * published as dispatch.* meters.
+ */
+@Service
+public class DispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchService.class);
+
+    private static final Set<DeliveryStatus> ACTIVE_STATUSES =
+            EnumSet.of(DeliveryStatus.PENDING, DeliveryStatus.ACCEPTED, DeliveryStatus.ON_WAY);
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${dispatch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${dispatch.policy:LEAST_LOADED}")
+    private DispatchPolicy policy;
+
+    @Value("${dispatch.batch-size:100}")
+    private int batchSize;
+
+    @Value("${dispatch.max-active-per-driver:5}")
+    private int maxActivePerDriver;
+
+    private final PriorityBlockingQueue<PendingDelivery> queue =
+            new PriorityBlockingQueue<>(1024, PendingDelivery.DISPATCH_ORDER);
+
+    // Ids still waiting; queue entries whose id is gone are skipped when polled
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, AtomicInteger> driverLoad = new ConcurrentHashMap<>();
+
+    private volatile Long[] drivers = new Long[0];
+
+    private int roundRobinIndex;
+
+    private final LongAdder assignedTotal = new LongAdder();
+    private final LongAdder conflictsTotal = new LongAdder();
+    private final LongAdder failuresTotal = new LongAdder();
+    private final LongAdder cyclesTotal = new LongAdder();
+    private final LongAdder latencyTotalMs = new LongAdder();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+    private volatile int lastCycleAssigned;
+    private volatile long lastCycleDurationMs;
+
+    private Timer assignmentLatency;
+
+    @PostConstruct
+    public void registerMeters() {
+        FunctionCounter.builder("dispatch.assigned", assignedTotal, LongAdder::sum)
+                .description("Deliveries assigned by the dispatcher")
+                .register(meterRegistry);
+        FunctionCounter.builder("dispatch.conflicts", conflictsTotal, LongAdder::sum)
+                .description("Deliveries dropped because they were assigned, cancelled or deleted elsewhere")
+                .register(meterRegistry);
+        FunctionCounter.builder("dispatch.failures", failuresTotal, LongAdder::sum)
+                .description("Assignments that failed unexpectedly and were re-queued")
+                .register(meterRegistry);
+        FunctionCounter.builder("dispatch.cycles", cyclesTotal, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("dispatch.queue.depth", queuedIds, Set::size)
+                .description("Pending deliveries waiting for a driver")
+                .register(meterRegistry);
+        Gauge.builder("dispatch.drivers.available", this, service -> service.drivers.length)
+                .register(meterRegistry);
+        Gauge.builder("dispatch.last_cycle.assigned", this, service -> service.lastCycleAssigned)
+                .register(meterRegistry);
+        Gauge.builder("dispatch.last_cycle.duration", this, service -> service.lastCycleDurationMs)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        assignmentLatency = Timer.builder("dispatch.assignment.latency")
+                .description("Time from delivery creation to assignment")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : deliveryRepository.countByDriverAndStatusIn(ACTIVE_STATUSES)) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+
+        List<User> activeDrivers = userRepository.findByRoleAndIsActive(UserRole.DRIVER, true);
+        List<Long> driverIds = new ArrayList<>(activeDrivers.size());
+        for (User driver : activeDrivers) {
+            driverIds.add(driver.getId());
+            driverLoad.computeIfAbsent(driver.getId(), id -> new AtomicInteger())
+                    .set(counts.getOrDefault(driver.getId(), 0));
+        }
+        driverLoad.keySet().retainAll(driverIds);
+        drivers = driverIds.toArray(new Long[0]);
+
+        queue.clear();
+        queuedIds.clear();
+        for (PendingDelivery pending : deliveryRepository.findDispatchQueue(DeliveryStatus.PENDING)) {
+            enqueue(pending);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.interval-ms:2000}")
+    public synchronized void dispatch() {
+        if (!enabled) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        int assigned = 0;
+
+        while (assigned < batchSize) {
+            PendingDelivery next = queue.poll();
+            if (next == null) {
+                break;
+            }
+            if (!queuedIds.contains(next.getId())) {
+                continue;
+            }
+
+            Long driverId = selectDriver();
+            if (driverId == null) {
+                // Every driver is at capacity; try again next cycle
+                queue.offer(next);
+                break;
+            }
+
+            try {
+                deliveryService.assignDriver(next.getId(), driverId);
+                assigned++;
+                recordLatency(next);
+            } catch (ResourceNotFoundException ex) {
+                if (userRepository.existsById(driverId)) {
+                    queuedIds.remove(next.getId());
+                    conflictsTotal.increment();
+                } else {
+                    // The driver was deleted since the last refresh; keep the delivery
+                    log.info("Dropping driver {} from dispatch: {}", driverId, ex.getMessage());
+                    removeDriver(driverId);
+                    queue.offer(next);
+                }
+            } catch (ConflictException ex) {
+                queuedIds.remove(next.getId());
+                conflictsTotal.increment();
+            } catch (IllegalArgumentException ex) {
+                // The driver was deactivated since the last refresh; keep the delivery
+                log.info("Dropping driver {} from dispatch: {}", driverId, ex.getMessage());
+                removeDriver(driverId);
+                queue.offer(next);
+            } catch (RuntimeException ex) {
+                // Likely the database; keep the delivery and stop until the next cycle
+                log.warn("Could not assign delivery {} to driver {}, re-queued", next.getId(), driverId, ex);
+                failuresTotal.increment();
+                queue.offer(next);
+                break;
+            }
+        }
+
+        cyclesTotal.increment();
+        lastCycleAssigned = assigned;
+        lastCycleDurationMs = System.currentTimeMillis() - started;
+    }
+
+    @EventListener
+    public void onDeliveryEvent(DeliveryEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        switch (event.getType()) {
+            case CREATED:
+                if (event.getNewStatus() == DeliveryStatus.PENDING) {
+                    enqueue(new PendingDelivery(event.getDeliveryId(), event.getPriority(), event.getCreatedAt()));
+                }
+                break;
+            case ASSIGNED:
+                queuedIds.remove(event.getDeliveryId());
+                adjustLoad(event.getDriverId(), 1);
+                break;
+            case STATUS_CHANGED:
+                if (event.getNewStatus().isTerminal()) {
+                    queuedIds.remove(event.getDeliveryId());
+                    adjustLoad(event.getDriverId(), -1);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    public DispatchStats getStats() {
+        long assigned = assignedTotal.sum();
+        return new DispatchStats(
+                enabled,
+                policy,
+                queuedIds.size(),
+                drivers.length,
+                assigned,
+                conflictsTotal.sum(),
+                failuresTotal.sum(),
+                cyclesTotal.sum(),
+                lastCycleAssigned,
+                lastCycleDurationMs,
+                assigned == 0 ? 0 : (double) latencyTotalMs.sum() / assigned,
+                maxLatencyMs.get());
+    }
+
+    private void enqueue(PendingDelivery pending) {
+        if (queuedIds.add(pending.getId())) {
+            queue.offer(pending);
+        }
+    }
+
+    private void adjustLoad(Long driverId, int delta) {
+        if (driverId == null) {
+            return;
+        }
+        AtomicInteger load = driverLoad.get(driverId);
+        if (load != null) {
+            load.updateAndGet(value -> Math.max(0, value + delta));
+        }
+    }
+
+    private void removeDriver(Long driverId) {
+        List<Long> remaining = new ArrayList<>(drivers.length);
+        for (Long candidate : drivers) {
+            if (!candidate.equals(driverId)) {
+                remaining.add(candidate);
+            }
+        }
+        drivers = remaining.toArray(new Long[0]);
+        driverLoad.remove(driverId);
+    }
+
+    private Long selectDriver() {
+        Long[] candidates = drivers;
+        if (candidates.length == 0) {
+            return null;
+        }
+
+        if (policy == DispatchPolicy.ROUND_ROBIN) {
+            for (int i = 0; i < candidates.length; i++) {
+                roundRobinIndex = (roundRobinIndex + 1) % candidates.length;
+                Long driverId = candidates[roundRobinIndex];
+                if (loadOf(driverId) < maxActivePerDriver) {
+                    return driverId;
+                }
+            }
+            return null;
+        }
+
+        Long best = null;
+        int bestLoad = maxActivePerDriver;
+        for (Long driverId : candidates) {
+            int load = loadOf(driverId);
+            if (load < bestLoad) {
+                best = driverId;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    private int loadOf(Long driverId) {
+        AtomicInteger load = driverLoad.get(driverId);
+        return load != null ? load.get() : 0;
+    }
+
+    private void recordLatency(PendingDelivery delivery) {
+        assignedTotal.increment();
+        if (delivery.getCreatedAt() == null) {
+            return;
+        }
+        long latency = Duration.between(delivery.getCreatedAt(), LocalDateTime.now()).toMillis();
+        assignmentLatency.record(latency, TimeUnit.MILLISECONDS);
+        latencyTotalMs.add(latency);
+        maxLatencyMs.accumulateAndGet(latency, Math::max);
+    }
+}
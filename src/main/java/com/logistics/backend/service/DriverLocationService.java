@@ -0,0 +1,260 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.dto.DriverLocationDto;
+import com.logistics.backend.dto.LocationPing;
+import com.logistics.backend.geo.DriverSpatialIndex;
+import com.logistics.backend.geo.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory driver position tracking.
+ *
+ * Each ping updates the driver's latest position, which is what reads are
+ * served from. Pings are also downsampled (at most one point per
+ * location.trail.min-interval-ms unless the driver moved more than
+ * location.trail.min-distance-m) into a fixed-size per-driver ring, and the
+ * rings are flushed to driver_locations in JDBC batches on a timer. Nothing
+ * touches the database on the ingest path.
+ *
+ * Device clocks are not trusted: a ping stamped more than
+ * location.max-clock-skew-ms in the future is rejected, and a smaller drift is
+ * clamped to the server time, so one bad clock cannot pin a driver's latest
+ * position.
+ */
+@Service
+public class DriverLocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverLocationService.class);
+
+    private static final String INSERT_SQL =
+            "insert into driver_locations (driver_id, latitude, longitude, recorded_at) values (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DriverSpatialIndex spatialIndex;
+
+    @Value("${location.trail.capacity:256}")
+    private int trailCapacity;
+
+    @Value("${location.trail.min-interval-ms:15000}")
+    private long minIntervalMs;
+
+    @Value("${location.trail.min-distance-m:50}")
+    private double minDistanceM;
+
+    @Value("${location.flush.batch-size:1000}")
+    private int flushBatchSize;
+
+    @Value("${location.max-clock-skew-ms:30000}")
+    private long maxClockSkewMs;
+
+    private final Map<Long, DriverTrack> tracks = new ConcurrentHashMap<>();
+
+    // Drivers with trail points not yet written
+    private final Set<Long> dirtyDrivers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder pingsReceived = new LongAdder();
+    private final LongAdder pingsRejected = new LongAdder();
+    private final LongAdder pointsDropped = new LongAdder();
+    private final LongAdder pointsFlushed = new LongAdder();
+
+    public int ingest(Long driverId, List<LocationPing> pings) {
+        DriverTrack track = tracks.computeIfAbsent(driverId, id -> new DriverTrack(trailCapacity));
+        long now = System.currentTimeMillis();
+        int accepted = 0;
+
+        for (LocationPing ping : pings) {
+            double latitude = ping.getLatitude();
+            double longitude = ping.getLongitude();
+            if (!GeoUtils.isValid(latitude, longitude)) {
+                continue;
+            }
+            long recordedAt = ping.getRecordedAt() != null
+                    ? Timestamp.valueOf(ping.getRecordedAt()).getTime()
+                    : now;
+            if (recordedAt > now + maxClockSkewMs) {
+                pingsRejected.increment();
+                continue;
+            }
+            recordedAt = Math.min(recordedAt, now);
+            if (track.record(latitude, longitude, recordedAt, minIntervalMs, minDistanceM)) {
+                dirtyDrivers.add(driverId);
+            }
+            accepted++;
+        }
+
+        Position latest = track.latest;
+        if (latest != null) {
+            spatialIndex.update(driverId, latest.latitude, latest.longitude, latest.recordedAt);
+        }
+
+        pingsReceived.add(accepted);
+        return accepted;
+    }
+
+    public DriverLocationDto getLatest(Long driverId) {
+        DriverTrack track = tracks.get(driverId);
+        Position latest = track != null ? track.latest : null;
+        if (latest == null) {
+            return null;
+        }
+        return new DriverLocationDto(driverId, latest.latitude, latest.longitude,
+                new Timestamp(latest.recordedAt).toLocalDateTime());
+    }
+
+    public long getPingsReceived() {
+        return pingsReceived.sum();
+    }
+
+    public long getPingsRejected() {
+        return pingsRejected.sum();
+    }
+
+    public long getPointsFlushed() {
+        return pointsFlushed.sum();
+    }
+
+    public long getPointsDropped() {
+        return pointsDropped.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${location.flush.interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> rows = new ArrayList<>(flushBatchSize);
+
+        Iterator<Long> drivers = dirtyDrivers.iterator();
+        while (drivers.hasNext()) {
+            Long driverId = drivers.next();
+            drivers.remove();
+            DriverTrack track = tracks.get(driverId);
+            if (track == null) {
+                continue;
+            }
+            track.drainTo(driverId, rows);
+            if (rows.size() >= flushBatchSize) {
+                write(rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            write(rows);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<Object[]> rows) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            pointsFlushed.add(rows.size());
+        } catch (DataAccessException ex) {
+            // Trails are best-effort history; the latest position is unaffected
+            pointsDropped.add(rows.size());
+            log.warn("Could not write {} driver locations: {}", rows.size(), ex.getMessage());
+        }
+    }
+
+    private static final class Position {
+        private final double latitude;
+        private final double longitude;
+        private final long recordedAt;
+
+        private Position(double latitude, double longitude, long recordedAt) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.recordedAt = recordedAt;
+        }
+    }
+
+    private final class DriverTrack {
+        private volatile Position latest;
+
+        // Ring of downsampled points waiting to be flushed
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final long[] timestamps;
+        private int head;
+        private int size;
+
+        private double lastTrailLatitude;
+        private double lastTrailLongitude;
+        private long lastTrailAt = Long.MIN_VALUE;
+
+        private DriverTrack(int capacity) {
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            timestamps = new long[capacity];
+        }
+
+        // Returns true when the point was added to the trail
+        private synchronized boolean record(double latitude, double longitude, long recordedAt,
+                                            long minIntervalMs, double minDistanceM) {
+            Position current = latest;
+            if (current == null || recordedAt >= current.recordedAt) {
+                latest = new Position(latitude, longitude, recordedAt);
+            }
+
+            if (lastTrailAt != Long.MIN_VALUE) {
+                long elapsed = recordedAt - lastTrailAt;
+                if (elapsed < 0) {
+                    return false;
+                }
+                if (elapsed < minIntervalMs) {
+                    double movedM = GeoUtils.haversineKm(lastTrailLatitude, lastTrailLongitude, latitude, longitude) * 1000;
+                    if (movedM < minDistanceM) {
+                        return false;
+                    }
+                }
+            }
+
+            int capacity = timestamps.length;
+            int tail = (head + size) % capacity;
+            latitudes[tail] = latitude;
+            longitudes[tail] = longitude;
+            timestamps[tail] = recordedAt;
+            if (size == capacity) {
+                head = (head + 1) % capacity;
+                pointsDropped.increment();
+            } else {
+                size++;
+            }
+
+            lastTrailLatitude = latitude;
+            lastTrailLongitude = longitude;
+            lastTrailAt = recordedAt;
+            return true;
+        }
+
+        private synchronized void drainTo(Long driverId, List<Object[]> rows) {
+            int capacity = timestamps.length;
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % capacity;
+                rows.add(new Object[]{driverId, latitudes[index], longitudes[index], new Timestamp(timestamps[index])});
+            }
+            head = 0;
+            size = 0;
+        }
+    }
+}
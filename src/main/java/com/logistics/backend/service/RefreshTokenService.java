@@ -0,0 +1,132 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.entity.RefreshToken;
+import com.logistics.backend.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and rotates refresh tokens. A refresh token can be exchanged once;
+ * presenting one that was already exchanged means it leaked, so every token
+ * of that user is revoked and the user has to log in again.
+ *
+ * The exception is a token rotated less than reuse-grace-seconds ago. Browser
+ * tabs share one refresh token through localStorage but each refreshes on its
+ * own, so two tabs hitting a 401 together both present it. The late one gets
+ * a fresh token of its own instead of logging the user out everywhere. Only
+ * the hash of the successor is stored, so it cannot be handed out twice. A
+ * logout or reuse detection after the rotation ends the grace.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh.expiration-days:30}")
+    private long expirationDays;
+
+    @Value("${jwt.refresh.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    @Transactional
+    public String issue(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUserId(userId);
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setExpiresAt(LocalDateTime.now().plusDays(expirationDays));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    /**
+     * Revokes the token and returns its user id, or empty if the token is
+     * unknown, expired or already used outside the grace window.
+     */
+    @Transactional
+    public Optional<Long> consume(String token) {
+        // Locked, so a concurrent refresh of the same token waits here and then sees the rotation
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHashForUpdate(hash(token));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken refreshToken = found.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshToken.getExpiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+        if (refreshToken.getRevokedAt() == null && refreshTokenRepository.rotate(refreshToken.getId(), now) == 1) {
+            return Optional.of(refreshToken.getUserId());
+        }
+        if (isRecentRotation(refreshToken, now)) {
+            log.debug("Refresh token of user {} presented again {} after rotation", refreshToken.getUserId(),
+                    Duration.between(refreshToken.getRotatedAt(), now));
+            return Optional.of(refreshToken.getUserId());
+        }
+        log.warn("Refresh token reuse for user {}, revoking all of their refresh tokens", refreshToken.getUserId());
+        refreshTokenRepository.revokeAllForUser(refreshToken.getUserId(), now);
+        return Optional.empty();
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.revoke(refreshToken.getId(), LocalDateTime.now()));
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    // Revoked tokens are kept until they expire so reuse is still detected
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private boolean isRecentRotation(RefreshToken refreshToken, LocalDateTime now) {
+        LocalDateTime rotatedAt = refreshToken.getRotatedAt();
+        return rotatedAt != null
+                && !rotatedAt.isBefore(now.minusSeconds(reuseGraceSeconds))
+                && !refreshTokenRepository.existsRevokedWithoutRotationSince(refreshToken.getUserId(), rotatedAt);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.logistics.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A status change waiting in {@link StatusHistoryWriter} to be written to
+ * the status_history table.
+ */
+@Getter
+@AllArgsConstructor
+public class StatusHistoryRecord {
+
+    private final Long deliveryId;
+    private final String oldStatus;
+    private final String newStatus;
+    private final Long changedById;
+    private final LocalDateTime changedAt;
+}
@@ -0,0 +1,101 @@
+package com.logistics.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logistics.backend.dto.StatusHistoryDto;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.exception.ResourceNotFoundException;
+import com.logistics.backend.repository.DeliveryArchiveRepository;
+import com.logistics.backend.repository.DeliveryRepository;
+import com.logistics.backend.repository.StatusHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Delivery timelines, newest first. Entries still queued in
+ * StatusHistoryWriter are merged in so a change is visible immediately.
+ *
+ * Timelines of terminal deliveries never change again and are cached, but
+ * only once the terminal transition itself has reached the table; otherwise
+ * a row that is mid-flush could be left out of the cached copy.
+ */
+@Service
+public class StatusHistoryService {
+
+    private static final Comparator<StatusHistoryDto> NEWEST_FIRST =
+            Comparator.comparing(StatusHistoryDto::getChangedAt).reversed();
+
+    @Autowired
+    private StatusHistoryRepository statusHistoryRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DeliveryArchiveRepository archiveRepository;
+
+    @Autowired
+    private StatusHistoryWriter statusHistoryWriter;
+
+    @Value("${status-history.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private Cache<Long, List<StatusHistoryDto>> terminalTimelines;
+
+    @PostConstruct
+    public void init() {
+        terminalTimelines = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<StatusHistoryDto> getTimeline(Long deliveryId) {
+        List<StatusHistoryDto> cached = terminalTimelines.getIfPresent(deliveryId);
+        if (cached != null) {
+            return cached;
+        }
+
+        DeliveryStatus status = deliveryRepository.findStatusById(deliveryId).orElse(null);
+        if (status == null) {
+            // Archived deliveries are terminal and their history moved with them
+            archiveRepository.findStatusById(deliveryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
+            List<StatusHistoryDto> timeline = Collections.unmodifiableList(archiveRepository.findTimeline(deliveryId));
+            terminalTimelines.put(deliveryId, timeline);
+            return timeline;
+        }
+
+        List<StatusHistoryDto> stored = statusHistoryRepository.findTimeline(deliveryId);
+        List<StatusHistoryRecord> pending = statusHistoryWriter.pendingFor(deliveryId);
+        if (pending.isEmpty()) {
+            List<StatusHistoryDto> timeline = Collections.unmodifiableList(stored);
+            if (status.isTerminal() && !stored.isEmpty() && status.name().equals(stored.get(0).getNewStatus())) {
+                terminalTimelines.put(deliveryId, timeline);
+            }
+            return timeline;
+        }
+
+        List<StatusHistoryDto> timeline = new ArrayList<>(stored.size() + pending.size());
+        for (StatusHistoryRecord record : pending) {
+            timeline.add(new StatusHistoryDto(
+                    null,
+                    record.getOldStatus(),
+                    record.getNewStatus(),
+                    record.getChangedById(),
+                    record.getChangedAt()));
+        }
+        timeline.addAll(stored);
+        // Stable sort keeps the database order for rows with equal timestamps
+        timeline.sort(NEWEST_FIRST);
+        return timeline;
+    }
+}
@@ -0,0 +1,274 @@
+package com.logistics.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for status history. Request threads only enqueue; rows
+ * are inserted in JDBC batches when the buffer reaches the batch size or on
+ * the flush interval, whichever comes first.
+ *
+ * When the buffer is full the enqueuing thread flushes it itself, which slows
+ * producers down instead of dropping history. A batch that fails is retried
+ * row by row so one bad row does not hold back the rest; rows that still
+ * cannot be written are appended to a spool file that is replayed on the next
+ * startup. Replay keeps only the rows it could not write, and a row that has
+ * failed max-replay-attempts replays is moved to a quarantine file.
+ */
+@Component
+public class StatusHistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatusHistoryWriter.class);
+
+    private static final String INSERT_SQL = "insert into status_history " +
+            "(delivery_id, old_status, new_status, changed_by, changed_at) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${status-history.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${status-history.batch-size:200}")
+    private int batchSize;
+
+    @Value("${status-history.spool-file:data/status-history.spool}")
+    private String spoolFile;
+
+    @Value("${status-history.max-replay-attempts:5}")
+    private int maxReplayAttempts;
+
+    private BlockingQueue<StatusHistoryRecord> buffer;
+
+    private final Object flushLock = new Object();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "status-history-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        replaySpool();
+    }
+
+    public void enqueue(StatusHistoryRecord record) {
+        if (!buffer.offer(record)) {
+            // Backpressure: the caller pays for a flush rather than losing the row
+            flush();
+            if (!buffer.offer(record)) {
+                writeOrSpool(List.of(record));
+                return;
+            }
+        }
+        if (buffer.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    public List<StatusHistoryRecord> pendingFor(Long deliveryId) {
+        List<StatusHistoryRecord> pending = new ArrayList<>();
+        for (StatusHistoryRecord record : buffer) {
+            if (record.getDeliveryId().equals(deliveryId)) {
+                pending.add(record);
+            }
+        }
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${status-history.flush-interval-ms:500}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<StatusHistoryRecord> batch = new ArrayList<>(batchSize);
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                writeOrSpool(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void writeOrSpool(List<StatusHistoryRecord> batch) {
+        List<Integer> failed = writeEach(batch);
+        if (!failed.isEmpty()) {
+            log.warn("Could not write status history, spooling {} of {} rows", failed.size(), batch.size());
+            List<StatusHistoryRecord> unwritten = new ArrayList<>(failed.size());
+            for (int i : failed) {
+                unwritten.add(batch.get(i));
+            }
+            spool(unwritten, 0);
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction and, if that fails, row by row.
+     * Returns the positions in the batch of the rows that could not be written;
+     * positions, not rows, because a replayed spool can hold equal rows.
+     */
+    private List<Integer> writeEach(List<StatusHistoryRecord> batch) {
+        try {
+            write(batch);
+            return List.of();
+        } catch (DataAccessException ex) {
+            if (batch.size() == 1) {
+                log.debug("Could not write status history for delivery {}: {}",
+                        batch.get(0).getDeliveryId(), ex.getMessage());
+                return List.of(0);
+            }
+            log.warn("Status history batch of {} rows failed, retrying row by row: {}", batch.size(), ex.getMessage());
+        }
+
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!writeEach(List.of(batch.get(i))).isEmpty()) {
+                failed.add(i);
+            }
+        }
+        return failed;
+    }
+
+    private void write(List<StatusHistoryRecord> batch) {
+        // One transaction so a failed batch leaves nothing behind to duplicate on retry
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+                    ps.setLong(1, record.getDeliveryId());
+                    ps.setString(2, record.getOldStatus());
+                    ps.setString(3, record.getNewStatus());
+                    ps.setLong(4, record.getChangedById());
+                    ps.setTimestamp(5, Timestamp.valueOf(record.getChangedAt()));
+                }));
+    }
+
+    private synchronized void spool(List<StatusHistoryRecord> records, int attempts) {
+        append(Paths.get(spoolFile), records, attempts);
+    }
+
+    private void append(Path path, List<StatusHistoryRecord> records, int attempts) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (StatusHistoryRecord record : records) {
+                    writer.write(record.getDeliveryId() + "," + record.getOldStatus() + "," + record.getNewStatus()
+                            + "," + record.getChangedById() + "," + record.getChangedAt() + "," + attempts);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException ex) {
+            log.error("Could not spool status history to {}", path, ex);
+        }
+    }
+
+    synchronized void replaySpool() {
+        Path path = Paths.get(spoolFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        List<StatusHistoryRecord> records = new ArrayList<>();
+        List<Integer> attempts = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                // Spools written before attempts were tracked have five fields
+                if (fields.length != 5 && fields.length != 6) {
+                    continue;
+                }
+                records.add(new StatusHistoryRecord(
+                        Long.valueOf(fields[0]),
+                        "null".equals(fields[1]) ? null : fields[1],
+                        fields[2],
+                        Long.valueOf(fields[3]),
+                        LocalDateTime.parse(fields[4])));
+                attempts.add(fields.length == 6 ? Integer.parseInt(fields[5]) : 0);
+            }
+        } catch (IOException ex) {
+            log.error("Could not read status history spool", ex);
+            return;
+        }
+
+        Path remaining = Paths.get(spoolFile + ".replay");
+        Path quarantine = Paths.get(spoolFile + ".quarantine");
+        int kept = 0;
+        int quarantined = 0;
+        try {
+            Files.deleteIfExists(remaining);
+            for (int from = 0; from < records.size(); from += batchSize) {
+                List<StatusHistoryRecord> batch = records.subList(from, Math.min(from + batchSize, records.size()));
+                for (int i : writeEach(batch)) {
+                    StatusHistoryRecord record = batch.get(i);
+                    int tries = attempts.get(from + i) + 1;
+                    if (tries >= maxReplayAttempts) {
+                        append(quarantine, List.of(record), tries);
+                        quarantined++;
+                    } else {
+                        append(remaining, List.of(record), tries);
+                        kept++;
+                    }
+                }
+            }
+            // Swap in a spool holding only the rows that were not written
+            if (kept > 0) {
+                Files.move(remaining, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.delete(path);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not rewrite status history spool: {}", ex.getMessage());
+            return;
+        }
+
+        log.info("Replayed status history spool: {} rows written, {} kept for the next startup, {} quarantined",
+                records.size() - kept - quarantined, kept, quarantined);
+        if (quarantined > 0) {
+            log.error("{} status history rows failed {} replays and were moved to {}",
+                    quarantined, maxReplayAttempts, quarantine);
+        }
+    }
+}
@@ -5,10 +5,12 @@ import com.logistics.backend.dto.UserDto;
 import com.logistics.backend.entity.User;
 import com.logistics.backend.entity.UserRole;
 import com.logistics.backend.exception.ResourceNotFoundException;
+import com.logistics.backend.geo.DriverSpatialIndex;
 import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.TokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,16 +22,27 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private TokenCache tokenCache;
 
-    public UserDto registerUser(RegisterRequest request) {
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
+    @Autowired
+    private DriverSpatialIndex driverSpatialIndex;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    public boolean isEmailRegistered(String email) {
+        return userRepository.findByEmail(email).isPresent();
+    }
+
+    // The password is hashed by the caller, see PasswordHasher
+    public UserDto registerUser(RegisterRequest request, String encodedPassword) {
+        if (isEmailRegistered(request.getEmail())) {
             throw new IllegalArgumentException("Email already registered");
         }
 
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(encodedPassword);
         user.setFullName(request.getFullName());
         user.setPhoneNumber(request.getPhoneNumber());
         user.setRole(UserRole.valueOf(request.getRole()));
@@ -39,6 +52,7 @@ public class UserService {
         return convertToDto(savedUser);
     }
 
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
@@ -50,6 +64,7 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
 
+    @Transactional(readOnly = true)
     public List<UserDto> getAllDrivers() {
         List<User> drivers = userRepository.findByRoleAndIsActive(UserRole.DRIVER, true);
         return drivers.stream()
@@ -62,6 +77,22 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
 
+    public UserDto deactivateUser(Long id) {
+        // The looked-up user may be the cached instance other threads are reading
+        User user = copyOf(getUserEntityById(id));
+        user.setIsActive(false);
+        User savedUser = userRepository.save(user);
+        tokenCache.evictUser(savedUser.getEmail());
+        refreshTokenService.revokeAllForUser(savedUser.getId());
+        driverSpatialIndex.remove(savedUser.getId());
+        return convertToDto(savedUser);
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getEmail(), user.getPassword(), user.getFullName(),
+                user.getPhoneNumber(), user.getRole(), user.getIsActive(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+
     private UserDto convertToDto(User user) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
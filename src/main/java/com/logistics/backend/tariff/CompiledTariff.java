@@ -0,0 +1,158 @@
+package com.logistics.backend.tariff;
+
+import com.logistics.backend.entity.DeliveryPriority;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A RateCard flattened into sorted band arrays and per-priority factors, so
+ * pricing is a binary search per band plus a handful of BigDecimal operations.
+ */
+public final class CompiledTariff {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final String name;
+    private final BigDecimal baseCharge;
+    private final Bands weightBands;
+    private final Bands distanceBands;
+    // Priority multiplier times the percentage surcharge factor, by ordinal
+    private final BigDecimal[] factors;
+    private final BigDecimal flatSurcharges;
+
+    private CompiledTariff(String name, BigDecimal baseCharge, Bands weightBands, Bands distanceBands,
+                           BigDecimal[] factors, BigDecimal flatSurcharges) {
+        this.name = name;
+        this.baseCharge = baseCharge;
+        this.weightBands = weightBands;
+        this.distanceBands = distanceBands;
+        this.factors = factors;
+        this.flatSurcharges = flatSurcharges;
+    }
+
+    public static CompiledTariff compile(RateCard card) {
+        BigDecimal percent = BigDecimal.ZERO;
+        BigDecimal flat = BigDecimal.ZERO;
+        for (RateCard.Surcharge surcharge : card.getSurcharges()) {
+            if (surcharge.getPercent() != null) {
+                percent = percent.add(surcharge.getPercent());
+            }
+            if (surcharge.getFlat() != null) {
+                flat = flat.add(surcharge.getFlat());
+            }
+        }
+        BigDecimal surchargeFactor = BigDecimal.ONE.add(percent.divide(HUNDRED));
+
+        DeliveryPriority[] priorities = DeliveryPriority.values();
+        BigDecimal[] factors = new BigDecimal[priorities.length];
+        for (DeliveryPriority priority : priorities) {
+            BigDecimal multiplier = card.getPriorityMultipliers().getOrDefault(priority, BigDecimal.ONE);
+            factors[priority.ordinal()] = multiplier.multiply(surchargeFactor);
+        }
+
+        return new CompiledTariff(
+                card.getName(),
+                card.getBaseCharge() != null ? card.getBaseCharge() : BigDecimal.ZERO,
+                Bands.compile(card.getWeightBands(), "weight"),
+                Bands.compile(card.getDistanceBands(), "distance"),
+                factors,
+                flat);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Prices one shipment. A null distance skips the distance bands; a
+     * quantity above every bounded band with no open band is rejected.
+     */
+    public BigDecimal price(BigDecimal weight, DeliveryPriority priority, BigDecimal distanceKm) {
+        BigDecimal subtotal = baseCharge.add(weightBands.charge(weight));
+        if (distanceKm != null) {
+            subtotal = subtotal.add(distanceBands.charge(distanceKm));
+        }
+        DeliveryPriority effective = priority != null ? priority : DeliveryPriority.MEDIUM;
+        return subtotal.multiply(factors[effective.ordinal()])
+                .add(flatSurcharges)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class Bands {
+        private final String dimension;
+        private final BigDecimal[] upperBounds;
+        private final BigDecimal[] rates;
+        private final BigDecimal[] flats;
+        // Open-ended band, or null when the bounded bands are exhaustive
+        private final BigDecimal openRate;
+        private final BigDecimal openFlat;
+
+        private Bands(String dimension, BigDecimal[] upperBounds, BigDecimal[] rates, BigDecimal[] flats,
+                      BigDecimal openRate, BigDecimal openFlat) {
+            this.dimension = dimension;
+            this.upperBounds = upperBounds;
+            this.rates = rates;
+            this.flats = flats;
+            this.openRate = openRate;
+            this.openFlat = openFlat;
+        }
+
+        private static Bands compile(List<RateCard.Band> bands, String dimension) {
+            List<RateCard.Band> bounded = bands.stream()
+                    .filter(band -> band.getUpTo() != null)
+                    .sorted(Comparator.comparing(RateCard.Band::getUpTo))
+                    .collect(Collectors.toList());
+            RateCard.Band open = bands.stream()
+                    .filter(band -> band.getUpTo() == null)
+                    .findFirst()
+                    .orElse(null);
+
+            int size = bounded.size();
+            BigDecimal[] upperBounds = new BigDecimal[size];
+            BigDecimal[] rates = new BigDecimal[size];
+            BigDecimal[] flats = new BigDecimal[size];
+            for (int i = 0; i < size; i++) {
+                RateCard.Band band = bounded.get(i);
+                upperBounds[i] = band.getUpTo();
+                rates[i] = orZero(band.getRate());
+                flats[i] = orZero(band.getFlat());
+            }
+
+            // No bands at all means this dimension is free
+            if (open == null && size == 0) {
+                return new Bands(dimension, upperBounds, rates, flats, BigDecimal.ZERO, BigDecimal.ZERO);
+            }
+            return new Bands(dimension, upperBounds, rates, flats,
+                    open != null ? orZero(open.getRate()) : null,
+                    open != null ? orZero(open.getFlat()) : null);
+        }
+
+        private BigDecimal charge(BigDecimal quantity) {
+            int low = 0;
+            int high = upperBounds.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (upperBounds[mid].compareTo(quantity) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (low < upperBounds.length) {
+                return flats[low].add(rates[low].multiply(quantity));
+            }
+            if (openRate == null) {
+                throw new IllegalArgumentException("No " + dimension + " band covers " + quantity.toPlainString());
+            }
+            return openFlat.add(openRate.multiply(quantity));
+        }
+
+        private static BigDecimal orZero(BigDecimal value) {
+            return value != null ? value : BigDecimal.ZERO;
+        }
+    }
+}
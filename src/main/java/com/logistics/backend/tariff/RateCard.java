@@ -0,0 +1,48 @@
+package com.logistics.backend.tariff;
+
+import com.logistics.backend.entity.DeliveryPriority;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate card as written in the tariffs file. The charge is
+ *
+ *   (baseCharge + weight band + distance band) * priority multiplier
+ *     * (1 + sum of percentage surcharges / 100) + sum of flat surcharges
+ *
+ * where a band charges flat + rate * quantity for the first band whose upTo
+ * bound covers the quantity (a band without upTo is open-ended).
+ */
+@Data
+@NoArgsConstructor
+public class RateCard {
+
+    @Data
+    @NoArgsConstructor
+    public static class Band {
+        private BigDecimal upTo;
+        private BigDecimal rate = BigDecimal.ZERO;
+        private BigDecimal flat = BigDecimal.ZERO;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Surcharge {
+        private String name;
+        private BigDecimal percent;
+        private BigDecimal flat;
+    }
+
+    private String name;
+    private BigDecimal baseCharge = BigDecimal.ZERO;
+    private List<Band> weightBands = new ArrayList<>();
+    private List<Band> distanceBands = new ArrayList<>();
+    private Map<DeliveryPriority, BigDecimal> priorityMultipliers = new EnumMap<>(DeliveryPriority.class);
+    private List<Surcharge> surcharges = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.logistics.backend.tariff;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class RateCardSet {
+
+    private RateCard defaultCard;
+
+    // Keyed by business user id
+    private Map<Long, RateCard> customers = new HashMap<>();
+}
@@ -0,0 +1,61 @@
+package com.logistics.backend.tariff;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.backend.entity.DeliveryPriority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the rate cards once at startup and prices shipments against the
+ * compiled form. Business users without their own card get the default one.
+ */
+@Service
+public class TariffEngine {
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${tariff.rate-cards-location:classpath:tariffs.json}")
+    private String rateCardsLocation;
+
+    private CompiledTariff defaultTariff;
+
+    private Map<Long, CompiledTariff> customerTariffs;
+
+    @PostConstruct
+    public void init() throws IOException {
+        RateCardSet rateCards;
+        try (InputStream input = resourceLoader.getResource(rateCardsLocation).getInputStream()) {
+            rateCards = objectMapper.readValue(input, RateCardSet.class);
+        }
+        if (rateCards.getDefaultCard() == null) {
+            throw new IllegalStateException("Rate cards at " + rateCardsLocation + " have no defaultCard");
+        }
+
+        defaultTariff = CompiledTariff.compile(rateCards.getDefaultCard());
+        Map<Long, CompiledTariff> compiled = new HashMap<>();
+        rateCards.getCustomers().forEach((customerId, card) -> compiled.put(customerId, CompiledTariff.compile(card)));
+        customerTariffs = compiled;
+    }
+
+    public CompiledTariff tariffFor(Long businessUserId) {
+        CompiledTariff tariff = businessUserId != null ? customerTariffs.get(businessUserId) : null;
+        return tariff != null ? tariff : defaultTariff;
+    }
+
+    public BigDecimal price(Long businessUserId, BigDecimal weight, DeliveryPriority priority, BigDecimal distanceKm) {
+        return tariffFor(businessUserId).price(weight, priority, distanceKm);
+    }
+}
@@ -0,0 +1,15 @@
+-- DeliveryVersions listing ETags: count(*) and max(updated_at) per business
+-- user or driver, over the hot and archive tables. updated_at is appended to
+-- the keyset indexes so the aggregate reads only the index; the keyset pages
+-- still seek on the leading (owner, created_at, id) columns. The new indexes
+-- are created before the old ones are dropped, since MySQL needs an index on
+-- the foreign key columns at all times.
+create index idx_deliveries_business_user_listing on deliveries (business_user_id, created_at, id, updated_at);
+create index idx_deliveries_driver_listing on deliveries (driver_id, created_at, id, updated_at);
+drop index idx_deliveries_business_user_created on deliveries;
+drop index idx_deliveries_driver_created on deliveries;
+
+create index idx_deliveries_archive_business_user_listing on deliveries_archive (business_user_id, created_at, id, updated_at);
+create index idx_deliveries_archive_driver_listing on deliveries_archive (driver_id, created_at, id, updated_at);
+drop index idx_deliveries_archive_business_user_created on deliveries_archive;
+drop index idx_deliveries_archive_driver_created on deliveries_archive;
@@ -0,0 +1,71 @@
+-- Schema as generated by hibernate.ddl-auto=update (MySQL8Dialect) before
+-- Flyway took over, including Hibernate's constraint names. Databases
+-- created that way are baselined at version 1 and skip this file, so it must
+-- not change; later schema changes go in new migrations.
+
+create table deliveries (
+    id bigint not null auto_increment,
+    actual_cost decimal(19,2),
+    actual_km decimal(19,2),
+    created_at datetime(6) not null,
+    customer_name varchar(255) not null,
+    customer_phone varchar(255) not null,
+    drop_address varchar(500) not null,
+    estimated_cost decimal(19,2),
+    estimated_km decimal(19,2),
+    notes varchar(1000),
+    pickup_address varchar(500) not null,
+    priority varchar(255) not null,
+    status varchar(255) not null,
+    updated_at datetime(6),
+    weight decimal(19,2) not null,
+    business_user_id bigint not null,
+    driver_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table status_history (
+    id bigint not null auto_increment,
+    changed_at datetime(6) not null,
+    new_status varchar(255) not null,
+    old_status varchar(255),
+    changed_by bigint not null,
+    delivery_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    email varchar(255) not null,
+    full_name varchar(255) not null,
+    is_active bit not null,
+    password varchar(255) not null,
+    phone_number varchar(255),
+    role varchar(255) not null,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table users
+    add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table deliveries
+    add constraint FK8k3te7rulghpj3cgkiqj35o3j
+    foreign key (business_user_id)
+    references users (id);
+
+alter table deliveries
+    add constraint FKm4ubh4uobntck32iawsw1mlvq
+    foreign key (driver_id)
+    references users (id);
+
+alter table status_history
+    add constraint FKivukhmmfvoqyn9rt7mvtkfbgn
+    foreign key (changed_by)
+    references users (id);
+
+alter table status_history
+    add constraint FKicr2yy0bqxysp7a6p11uwjeek
+    foreign key (delivery_id)
+    references deliveries (id);
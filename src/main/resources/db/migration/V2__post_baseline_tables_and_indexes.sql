@@ -0,0 +1,43 @@
+-- Tables and indexes added since the ddl-auto=update baseline (V1).
+
+-- Pooled delivery ids (Delivery's table generator); seeded by V3.
+-- deliveries.id keeps its auto_increment; explicit ids are accepted as-is.
+create table id_generators (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+);
+
+create table driver_locations (
+    id bigint not null auto_increment,
+    driver_id bigint not null,
+    latitude double not null,
+    longitude double not null,
+    recorded_at datetime(6) not null,
+    primary key (id)
+);
+
+create index idx_driver_locations_driver_recorded on driver_locations (driver_id, recorded_at);
+
+create table delivery_stats (
+    stat_key varchar(64) not null,
+    stat_value bigint not null,
+    updated_at datetime(6) not null,
+    primary key (stat_key)
+);
+
+-- Keyset pages by business user and by driver, newest first
+create index idx_deliveries_business_user_created on deliveries (business_user_id, created_at, id);
+create index idx_deliveries_driver_created on deliveries (driver_id, created_at, id);
+
+-- findByStatus, findByStatusAndDriverIsNull, findDispatchQueue, countByStatus, sumActualCostByStatus
+create index idx_deliveries_status_driver on deliveries (status, driver_id);
+
+-- countByDriverAndStatusIn
+create index idx_deliveries_driver_status on deliveries (driver_id, status);
+
+-- Status history by delivery, oldest first
+create index idx_status_history_delivery_changed on status_history (delivery_id, changed_at);
+
+-- findByRole, findByRoleAndIsActive
+create index idx_users_role_active on users (role, is_active);
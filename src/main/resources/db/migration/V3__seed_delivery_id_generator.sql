@@ -0,0 +1,6 @@
+-- Start the pooled delivery ids above any id already in use. Must stay in
+-- step with the allocationSize (500) of the Delivery table generator.
+insert into id_generators (sequence_name, next_val)
+select 'deliveries', coalesce(max(id), 0) + 501
+from deliveries
+where not exists (select 1 from id_generators where sequence_name = 'deliveries');
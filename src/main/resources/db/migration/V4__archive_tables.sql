@@ -0,0 +1,39 @@
+-- Cold storage for terminal deliveries and their history, filled by
+-- DeliveryArchiveService. No foreign keys, so moving rows in stays cheap.
+
+create table deliveries_archive (
+    id bigint not null,
+    business_user_id bigint not null,
+    driver_id bigint,
+    pickup_address varchar(500) not null,
+    drop_address varchar(500) not null,
+    customer_name varchar(255) not null,
+    customer_phone varchar(255) not null,
+    weight decimal(19, 2) not null,
+    priority varchar(255) not null,
+    notes varchar(1000),
+    status varchar(255) not null,
+    estimated_km decimal(19, 2),
+    estimated_cost decimal(19, 2),
+    actual_km decimal(19, 2),
+    actual_cost decimal(19, 2),
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    archived_at datetime(6) not null,
+    primary key (id)
+);
+
+create index idx_deliveries_archive_business_user_created on deliveries_archive (business_user_id, created_at, id);
+create index idx_deliveries_archive_driver_created on deliveries_archive (driver_id, created_at, id);
+
+create table status_history_archive (
+    id bigint not null,
+    delivery_id bigint not null,
+    old_status varchar(255),
+    new_status varchar(255) not null,
+    changed_by bigint not null,
+    changed_at datetime(6) not null,
+    primary key (id)
+);
+
+create index idx_status_history_archive_delivery_changed on status_history_archive (delivery_id, changed_at);
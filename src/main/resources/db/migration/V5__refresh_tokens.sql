@@ -0,0 +1,16 @@
+-- Refresh tokens for /api/auth/refresh. Only the SHA-256 hash of each token
+-- is stored; expired rows are purged by RefreshTokenService.
+
+create table refresh_tokens (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    token_hash varchar(64) not null,
+    expires_at datetime(6) not null,
+    revoked_at datetime(6),
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint uk_refresh_tokens_token_hash unique (token_hash),
+    constraint fk_refresh_tokens_user foreign key (user_id) references users (id)
+);
+
+create index idx_refresh_tokens_user on refresh_tokens (user_id);
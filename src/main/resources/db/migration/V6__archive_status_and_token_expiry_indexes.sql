@@ -0,0 +1,7 @@
+-- Indexes found missing by RepositoryQueryPlanTest.
+
+-- DeliveryArchiveRepository countByStatus, sumActualCostByStatus, countByDriverAndStatus
+create index idx_deliveries_archive_status_driver on deliveries_archive (status, driver_id);
+
+-- RefreshTokenRepository deleteExpiredBefore
+create index idx_refresh_tokens_expires on refresh_tokens (expires_at);
@@ -0,0 +1,2 @@
+-- DeliveryArchiveRepository findArchivableIds: status in (...) and updated_at < cutoff
+create index idx_deliveries_status_updated on deliveries (status, updated_at);
@@ -0,0 +1,9 @@
+-- Written on the primary every replica.heartbeat-interval-ms; ReplicaRoutingDataSource
+-- reads it on each replica to measure how far behind the replica is.
+create table replica_heartbeat (
+    id int not null,
+    beat_at datetime(6) not null,
+    primary key (id)
+);
+
+insert into replica_heartbeat (id, beat_at) values (1, current_timestamp(6));
@@ -0,0 +1,4 @@
+-- Set when a refresh token is exchanged at /api/auth/refresh, as opposed to
+-- revoked by logout or reuse detection. RefreshTokenService lets a rotated
+-- token be presented again for a few seconds, for browser tabs that raced.
+alter table refresh_tokens add column rotated_at datetime(6);
@@ -31,9 +31,9 @@ const Login = () => {
 
     try {
       const response = await authApi.login(formData);
-      const { token, user } = response.data;
+      const { token, refreshToken, user } = response.data;
 
-      login(token, user);
+      login(token, user, refreshToken);
       navigate('/dashboard');
     } catch (err) {
       setError(
@@ -34,9 +34,9 @@ const Register = () => {
 
     try {
       const response = await authApi.register(formData);
-      const { token, user } = response.data;
+      const { token, refreshToken, user } = response.data;
 
-      login(token, user);
+      login(token, user, refreshToken);
       navigate('/dashboard');
     } catch (err) {
       setError(err.response?.data?.message || 'Registration failed');
@@ -18,15 +18,53 @@ api.interceptors.request.use(
   }
 );
 
+// Refresh tokens are single use, so concurrent 401s share one refresh call
+let refreshing = null;
+
+const refreshAccessToken = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshing = axios
+      .post(`${process.env.REACT_APP_API_URL}/auth/refresh`, { refreshToken })
+      .then((response) => {
+        localStorage.setItem('token', response.data.token);
+        localStorage.setItem('refreshToken', response.data.refreshToken);
+        return response.data.token;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+const clearSession = () => {
+  localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
+  localStorage.removeItem('user');
+  window.location.href = '/login';
+};
+
 api.interceptors.response.use(
   (response) => {
     return response;
   },
-  (error) => {
-    if (error.response?.status === 401) {
-      localStorage.removeItem('token');
-      localStorage.removeItem('user');
-      window.location.href = '/login';
+  async (error) => {
+    const config = error.config;
+    if (error.response?.status === 401 && !config.url.startsWith('/auth/')) {
+      if (config._retried || !localStorage.getItem('refreshToken')) {
+        clearSession();
+        return Promise.reject(error);
+      }
+      config._retried = true;
+      try {
+        const token = await refreshAccessToken();
+        config.headers.Authorization = `Bearer ${token}`;
+        return api(config);
+      } catch (refreshError) {
+        clearSession();
+        return Promise.reject(refreshError);
+      }
     }
     return Promise.reject(error);
   }
@@ -37,6 +75,8 @@ export const authApi = {
     api.post('/auth/register', data),
   login: (data) =>
     api.post('/auth/login', data),
+  logout: (refreshToken) =>
+    api.post('/auth/logout', { refreshToken }),
 };
 
 export const userApi = {
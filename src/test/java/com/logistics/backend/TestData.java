@@ -0,0 +1,45 @@
+package com.logistics.backend;
+
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.entity.DeliveryPriority;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builders for test rows. Tests share one in-memory database per JVM, so
+ * every user gets a unique email and assertions stay scoped to the test's own
+ * users.
+ */
+public final class TestData {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private TestData() {
+    }
+
+    public static User user(UserRole role) {
+        User user = new User();
+        user.setEmail(role.name().toLowerCase() + "-" + SEQUENCE.incrementAndGet() + "@example.com");
+        // Not a real hash; tests that log in encode their own
+        user.setPassword("not-a-bcrypt-hash");
+        user.setFullName("Test " + role.name());
+        user.setPhoneNumber("9000000000");
+        user.setRole(role);
+        user.setIsActive(true);
+        return user;
+    }
+
+    public static DeliveryDto delivery() {
+        DeliveryDto delivery = new DeliveryDto();
+        delivery.setPickupAddress("MG Road, Bengaluru");
+        delivery.setDropAddress("Park Street, Kolkata");
+        delivery.setCustomerName("Customer " + SEQUENCE.incrementAndGet());
+        delivery.setCustomerPhone("9123456789");
+        delivery.setWeight(new BigDecimal("5.00"));
+        delivery.setPriority(DeliveryPriority.MEDIUM);
+        return delivery;
+    }
+}
@@ -0,0 +1,133 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.JwtTokenProvider;
+import com.logistics.backend.service.DeliveryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A single delivery is loaded once for plain reads and only probed for its
+ * version when the client revalidates. Listing ETags come from the database,
+ * so changes made by another instance, simulated here with plain JDBC
+ * updates, are seen on the next revalidation.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class DeliveryEtagTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private DeliveryService deliveryService;
+
+    @Test
+    void plainReadSkipsTheProbeAndRevalidationAnswersNotModified() {
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        Long deliveryId = deliveryService.createDelivery(TestData.delivery(), businessUser.getId()).getId();
+        HttpHeaders headers = headers(businessUser);
+        clearInvocations(deliveryService);
+
+        ResponseEntity<DeliveryDto> first = get(deliveryId, headers);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getETag()).isNotNull();
+        verify(deliveryService, never()).getDeliveryUpdatedAt(anyLong());
+
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        ResponseEntity<DeliveryDto> second = get(deliveryId, headers);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(deliveryService).getDeliveryUpdatedAt(deliveryId);
+    }
+
+    @Test
+    void listingRevalidationSeesChangesMadeOutsideThisInstance() {
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        User driver = userRepository.save(TestData.user(UserRole.DRIVER));
+        User otherDriver = userRepository.save(TestData.user(UserRole.DRIVER));
+        Long deliveryId = deliveryService.createDelivery(TestData.delivery(), businessUser.getId()).getId();
+        deliveryService.assignDriver(deliveryId, driver.getId());
+        HttpHeaders businessHeaders = headers(businessUser);
+        HttpHeaders driverHeaders = headers(driver);
+
+        String businessEtag = revalidatedEtag(businessHeaders);
+        String driverEtag = revalidatedEtag(driverHeaders);
+
+        // Another instance moves the delivery on; no DeliveryEvent reaches this one
+        jdbcTemplate.update("update deliveries set status = 'ACCEPTED', updated_at = ? where id = ?",
+                LocalDateTime.now(), deliveryId);
+        businessHeaders.setIfNoneMatch(businessEtag);
+        ResponseEntity<DeliveryDto[]> changed = list(businessHeaders);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(businessEtag);
+        assertThat(changed.getBody()).extracting(DeliveryDto::getStatus).containsExactly(DeliveryStatus.ACCEPTED);
+
+        // ...and hands it to another driver, so it leaves the first driver's listing
+        jdbcTemplate.update("update deliveries set driver_id = ?, updated_at = ? where id = ?",
+                otherDriver.getId(), LocalDateTime.now(), deliveryId);
+        driverHeaders.setIfNoneMatch(driverEtag);
+        ResponseEntity<DeliveryDto[]> left = list(driverHeaders);
+        assertThat(left.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(left.getBody()).isEmpty();
+    }
+
+    // Lists once, then checks that the ETag is stable while nothing changes
+    private String revalidatedEtag(HttpHeaders headers) {
+        ResponseEntity<DeliveryDto[]> first = list(headers);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        headers.setIfNoneMatch(etag);
+        assertThat(list(headers).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+        return etag;
+    }
+
+    private ResponseEntity<DeliveryDto[]> list(HttpHeaders headers) {
+        return restTemplate.exchange("/api/deliveries", HttpMethod.GET, new HttpEntity<>(headers), DeliveryDto[].class);
+    }
+
+    private HttpHeaders headers(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole()));
+        return headers;
+    }
+
+    private ResponseEntity<DeliveryDto> get(Long deliveryId, HttpHeaders headers) {
+        return restTemplate.exchange("/api/deliveries/" + deliveryId, HttpMethod.GET,
+                new HttpEntity<>(headers), DeliveryDto.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.StatusHistoryDto;
+import com.logistics.backend.dto.StatusUpdateRequest;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.JwtTokenProvider;
+import com.logistics.backend.service.DeliveryService;
+import com.logistics.backend.service.StatusHistoryWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Who may read a delivery's timeline, that changes still queued for the
+ * history table show up at once, and that only terminal timelines are cached.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // Flushed only when the test says so
+        properties = "status-history.flush-interval-ms=3600000")
+@ActiveProfiles("test")
+class DeliveryHistoryTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private StatusHistoryWriter statusHistoryWriter;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User businessUser;
+
+    private User driver;
+
+    private Long deliveryId;
+
+    @BeforeEach
+    void createAssignedDelivery() {
+        businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        driver = userRepository.save(TestData.user(UserRole.DRIVER));
+        deliveryId = deliveryService.createDelivery(TestData.delivery(), businessUser.getId()).getId();
+        deliveryService.assignDriver(deliveryId, driver.getId());
+    }
+
+    @Test
+    void onlyAdminsTheOwnerAndTheAssignedDriverCanReadTheHistory() {
+        User admin = userRepository.save(TestData.user(UserRole.ADMIN));
+        User otherBusinessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        User otherDriver = userRepository.save(TestData.user(UserRole.DRIVER));
+
+        assertThat(history(admin).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(history(businessUser).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(history(driver).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(history(otherBusinessUser).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(history(otherDriver).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void unknownDeliveryIsNotFound() {
+        ResponseEntity<String> response = restTemplate.exchange("/api/deliveries/999999999/history",
+                HttpMethod.GET, new HttpEntity<>(headers(businessUser)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void queuedChangesAreMergedNewestFirstAndNotDuplicatedAfterFlush() {
+        updateStatus(DeliveryStatus.ACCEPTED);
+        statusHistoryWriter.flush();
+        updateStatus(DeliveryStatus.ON_WAY);
+
+        // ON_WAY is still in the writer's buffer
+        assertThat(newStatuses(history(businessUser).getBody())).containsExactly("ON_WAY", "ACCEPTED");
+
+        statusHistoryWriter.flush();
+        assertThat(newStatuses(history(businessUser).getBody())).containsExactly("ON_WAY", "ACCEPTED");
+    }
+
+    @Test
+    void onlyTerminalTimelinesAreCached() {
+        updateStatus(DeliveryStatus.ACCEPTED);
+        statusHistoryWriter.flush();
+        assertThat(newStatuses(history(driver).getBody())).containsExactly("ACCEPTED");
+
+        // A row written behind the service's back shows up while the delivery is active
+        insertHistoryRow("ACCEPTED", "ON_WAY", LocalDateTime.now());
+        assertThat(newStatuses(history(driver).getBody())).containsExactly("ON_WAY", "ACCEPTED");
+
+        updateStatus(DeliveryStatus.CANCELLED);
+        // Not cached while the terminal row is still queued
+        assertThat(newStatuses(history(driver).getBody())).containsExactly("CANCELLED", "ON_WAY", "ACCEPTED");
+        statusHistoryWriter.flush();
+        assertThat(newStatuses(history(driver).getBody())).containsExactly("CANCELLED", "ON_WAY", "ACCEPTED");
+
+        // Once the terminal row is stored the timeline is served from the cache
+        insertHistoryRow("CANCELLED", "PENDING", LocalDateTime.now());
+        assertThat(newStatuses(history(driver).getBody())).containsExactly("CANCELLED", "ON_WAY", "ACCEPTED");
+    }
+
+    private void updateStatus(DeliveryStatus newStatus) {
+        deliveryService.updateDeliveryStatus(deliveryId, new StatusUpdateRequest(newStatus, null, null),
+                driver.getId());
+    }
+
+    private void insertHistoryRow(String oldStatus, String newStatus, LocalDateTime changedAt) {
+        jdbcTemplate.update("insert into status_history (changed_at, new_status, old_status, changed_by, delivery_id) " +
+                "values (?, ?, ?, ?, ?)", changedAt, newStatus, oldStatus, driver.getId(), deliveryId);
+    }
+
+    private ResponseEntity<List<StatusHistoryDto>> history(User user) {
+        return restTemplate.exchange("/api/deliveries/" + deliveryId + "/history", HttpMethod.GET,
+                new HttpEntity<>(headers(user)),
+                new ParameterizedTypeReference<List<StatusHistoryDto>>() { });
+    }
+
+    private HttpHeaders headers(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole()));
+        return headers;
+    }
+
+    private static List<String> newStatuses(List<StatusHistoryDto> timeline) {
+        return timeline.stream().map(StatusHistoryDto::getNewStatus).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The delivery stream takes its token as a query parameter and must not
+ * outlive it: the client is told to reauthenticate and the stream ends while
+ * the token is still valid.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"jwt.expiration=4000", "delivery.stream.heartbeat-ms=500"})
+@ActiveProfiles("test")
+class DeliveryStreamReauthenticationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void streamAsksForReauthenticationAndClosesBeforeTheTokenExpires() throws Exception {
+        User user = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole());
+        Instant expiresAt = jwtTokenProvider.getUserFromClaims(jwtTokenProvider.parseToken(token)).getExpiresAt();
+
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/deliveries/stream?access_token=" + token)).build();
+        List<String> lines = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenApply(response -> {
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    return response.body().collect(Collectors.toList());
+                })
+                .get(15, TimeUnit.SECONDS);
+
+        assertThat(Instant.now()).isBefore(expiresAt);
+        assertThat(lines).contains("event:reauthenticate");
+    }
+}
@@ -0,0 +1,143 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.StatusUpdateRequest;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.JwtTokenProvider;
+import com.logistics.backend.service.DeliveryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Who may read a driver's latest position or search drivers near a point,
+ * and how device timestamps from the future are handled.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class LocationControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private User driver;
+
+    @BeforeEach
+    void reportPosition() {
+        driver = userRepository.save(TestData.user(UserRole.DRIVER));
+        ResponseEntity<Map<String, Integer>> response = report(driver, LocalDateTime.now().minusSeconds(5));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody()).containsEntry("accepted", 1);
+    }
+
+    @Test
+    void adminAndTheDriverCanReadTheLocation() {
+        User admin = userRepository.save(TestData.user(UserRole.ADMIN));
+
+        assertThat(readLocation(admin).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(readLocation(driver).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void otherDriversCannotReadTheLocation() {
+        User otherDriver = userRepository.save(TestData.user(UserRole.DRIVER));
+
+        assertThat(readLocation(otherDriver).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void businessUserCanReadOnlyWhileTheDriverHasTheirActiveDelivery() {
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        assertThat(readLocation(businessUser).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        Long deliveryId = deliveryService.createDelivery(TestData.delivery(), businessUser.getId()).getId();
+        deliveryService.assignDriver(deliveryId, driver.getId());
+        assertThat(readLocation(businessUser).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        deliveryService.updateDeliveryStatus(deliveryId,
+                new StatusUpdateRequest(DeliveryStatus.CANCELLED, null, null), businessUser.getId());
+        assertThat(readLocation(businessUser).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void onlyAdminsCanSearchNearbyDrivers() {
+        User admin = userRepository.save(TestData.user(UserRole.ADMIN));
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+
+        assertThat(nearby(admin).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(nearby(admin).getBody()).extracting(d -> ((Number) d.get("driverId")).longValue())
+                .contains(driver.getId());
+        assertThat(nearby(businessUser).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(nearby(driver).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void futureTimestampsAreRejectedOrClampedToServerTime() {
+        ResponseEntity<Map<String, Integer>> farFuture = report(driver, LocalDateTime.now().plusHours(1));
+        assertThat(farFuture.getBody()).containsEntry("accepted", 0);
+
+        ResponseEntity<Map<String, Integer>> slightDrift = report(driver, LocalDateTime.now().plusSeconds(10));
+        assertThat(slightDrift.getBody()).containsEntry("accepted", 1);
+
+        ResponseEntity<Map<String, Object>> location = readLocation(driver);
+        LocalDateTime recordedAt = LocalDateTime.parse((String) location.getBody().get("recordedAt"));
+        assertThat(recordedAt).isBeforeOrEqualTo(LocalDateTime.now());
+
+        // A later real ping still replaces the clamped one
+        report(driver, LocalDateTime.now().plusSeconds(1));
+        LocalDateTime after = LocalDateTime.parse((String) readLocation(driver).getBody().get("recordedAt"));
+        assertThat(after).isAfterOrEqualTo(recordedAt);
+    }
+
+    private ResponseEntity<Map<String, Integer>> report(User user, LocalDateTime recordedAt) {
+        Map<String, Object> ping = Map.of("latitude", 12.9716, "longitude", 77.5946, "recordedAt", recordedAt.toString());
+        return restTemplate.exchange("/api/locations", HttpMethod.POST,
+                new HttpEntity<>(Map.of("pings", List.of(ping)), headers(user)),
+                new ParameterizedTypeReference<Map<String, Integer>>() { });
+    }
+
+    private ResponseEntity<Map<String, Object>> readLocation(User user) {
+        return restTemplate.exchange("/api/locations/drivers/" + driver.getId(), HttpMethod.GET,
+                new HttpEntity<>(headers(user)),
+                new ParameterizedTypeReference<Map<String, Object>>() { });
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> nearby(User user) {
+        return restTemplate.exchange("/api/users/drivers/nearby?lat=12.9716&lng=77.5946&radiusKm=1", HttpMethod.GET,
+                new HttpEntity<>(headers(user)),
+                new ParameterizedTypeReference<List<Map<String, Object>>>() { });
+    }
+
+    private HttpHeaders headers(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole()));
+        return headers;
+    }
+}
@@ -0,0 +1,175 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.JwtTokenProvider;
+import com.logistics.backend.service.DriverLocationService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives POST /api/locations over HTTP from many concurrent drivers and checks
+ * that one node sustains tens of thousands of pings per second, and that the
+ * database only sees the downsampled trail, never a row per ping. The client
+ * runs in the same JVM and competes for the same cores, so the test profile
+ * lowers the floor; on a dedicated node expect location-load.expected-pings-per-second=20000.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class LocationIngestLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationIngestLoadTest.class);
+
+    private static final int DRIVERS = 200;
+    private static final int THREADS = 16;
+    private static final int BATCHES_PER_DRIVER = 10;
+    private static final int PINGS_PER_BATCH = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${location-load.expected-pings-per-second:20000}")
+    private double expectedPingsPerSecond;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private DriverLocationService driverLocationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void sustainsTensOfThousandsOfPingsPerSecondWithoutARowPerPing() throws Exception {
+        List<User> drivers = new ArrayList<>();
+        for (int i = 0; i < DRIVERS; i++) {
+            drivers.add(userRepository.save(TestData.user(UserRole.DRIVER)));
+        }
+        Long firstDriverId = drivers.get(0).getId();
+        Long lastDriverId = drivers.get(DRIVERS - 1).getId();
+
+        // Warm up the JIT, the token cache and the connection pool
+        send(drivers, LocalDateTime.now().minusHours(2), 2);
+        driverLocationService.flush();
+        long rowsBefore = trailRows(firstDriverId, lastDriverId);
+
+        // Each driver moves ~1 m per ping, one ping a second, all in the past
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        long started = System.nanoTime();
+        long accepted = send(drivers, start, BATCHES_PER_DRIVER);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000d;
+
+        long pings = (long) DRIVERS * BATCHES_PER_DRIVER * PINGS_PER_BATCH;
+        assertThat(accepted).isEqualTo(pings);
+
+        driverLocationService.flush();
+        long rows = trailRows(firstDriverId, lastDriverId) - rowsBefore;
+
+        double rate = pings / seconds;
+        log.info("Location ingest: {} pings in {} s, {} pings/s, {} trail rows written",
+                pings, String.format("%.2f", seconds), Math.round(rate), rows);
+        assertThat(rate).isGreaterThanOrEqualTo(expectedPingsPerSecond);
+        assertThat(rows).isPositive().isLessThan(pings / 10);
+    }
+
+    private long send(List<User> drivers, LocalDateTime start, int batchesPerDriver) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                List<User> share = new ArrayList<>();
+                for (int i = t; i < drivers.size(); i += THREADS) {
+                    share.add(drivers.get(i));
+                }
+                List<HttpRequest> requests = buildRequests(share, start, batchesPerDriver);
+                futures.add(executor.submit(() -> sendAll(requests)));
+            }
+            long accepted = 0;
+            for (Future<Long> future : futures) {
+                accepted += future.get(120, TimeUnit.SECONDS);
+            }
+            return accepted;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Bodies are built before timing starts so the client's JSON work is not measured
+    private List<HttpRequest> buildRequests(List<User> drivers, LocalDateTime start, int batchesPerDriver) {
+        Map<Long, String> tokens = new HashMap<>();
+        for (User driver : drivers) {
+            tokens.put(driver.getId(), jwtTokenProvider.generateToken(driver.getId(), driver.getEmail(), driver.getRole()));
+        }
+
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int batch = 0; batch < batchesPerDriver; batch++) {
+            for (User driver : drivers) {
+                StringBuilder body = new StringBuilder("{\"pings\":[");
+                for (int i = 0; i < PINGS_PER_BATCH; i++) {
+                    int step = batch * PINGS_PER_BATCH + i;
+                    if (i > 0) {
+                        body.append(',');
+                    }
+                    body.append("{\"latitude\":").append(12.9 + (driver.getId() % 100) * 0.001 + step * 0.000009)
+                            .append(",\"longitude\":").append(77.5)
+                            .append(",\"recordedAt\":\"").append(start.plusSeconds(step)).append("\"}");
+                }
+                body.append("]}");
+                requests.add(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/locations"))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", "Bearer " + tokens.get(driver.getId()))
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build());
+            }
+        }
+        return requests;
+    }
+
+    private long sendAll(List<HttpRequest> requests) throws Exception {
+        AtomicLong accepted = new AtomicLong();
+        for (HttpRequest request : requests) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(202);
+            accepted.addAndGet(Long.parseLong(response.body().replaceAll("\\D", "")));
+        }
+        return accepted.get();
+    }
+
+    private long trailRows(Long firstDriverId, Long lastDriverId) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from driver_locations where driver_id between ? and ?",
+                Long.class, firstDriverId, lastDriverId);
+    }
+}
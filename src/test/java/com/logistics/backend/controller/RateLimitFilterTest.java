@@ -0,0 +1,117 @@
+package com.logistics.backend.controller;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.JwtAuthenticationFilter;
+import com.logistics.backend.security.JwtTokenProvider;
+import com.logistics.backend.security.RateLimitFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.servlet.Filter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The filter as wired into the security chain: 429 with a Retry-After rounded
+ * up to whole seconds, and limits that depend on the caller's role, which
+ * only work because the filter runs after the JWT filter.
+ */
+@SpringBootTest(properties = {
+        // 2.5 s per token, so Retry-After has to round up to 3
+        "rate-limit.rules[0].name=user-lookups",
+        "rate-limit.rules[0].method=GET",
+        "rate-limit.rules[0].path=/api/users/**",
+        "rate-limit.rules[0].capacity=1",
+        "rate-limit.rules[0].refill-per-second=0.4",
+        "rate-limit.rules[1].name=driver-reads",
+        "rate-limit.rules[1].method=GET",
+        "rate-limit.rules[1].path=/api/deliveries/**",
+        "rate-limit.rules[1].roles=DRIVER",
+        "rate-limit.rules[1].scope=ROLE",
+        "rate-limit.rules[1].capacity=1",
+        "rate-limit.rules[1].refill-per-second=0.001"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilterChainProxy filterChainProxy;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void overTheLimitIsAnsweredWith429AndARoundedUpRetryAfter() throws Exception {
+        User driver = userRepository.save(TestData.user(UserRole.DRIVER));
+
+        assertThat(perform("/api/users/" + driver.getId(), driver).getResponse().getStatus())
+                .isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        MvcResult rejected = perform("/api/users/" + driver.getId(), driver);
+        assertThat(rejected.getResponse().getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejected.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(rejected.getResponse().getContentAsString()).contains("retry after 3 seconds");
+    }
+
+    @Test
+    void roleLimitsSeeTheAuthenticatedPrincipal() throws Exception {
+        User firstDriver = userRepository.save(TestData.user(UserRole.DRIVER));
+        User secondDriver = userRepository.save(TestData.user(UserRole.DRIVER));
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+
+        assertThat(perform("/api/deliveries", firstDriver)
+                .getResponse().getStatus()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        // The drivers share one bucket, which the first one emptied
+        assertThat(perform("/api/deliveries", secondDriver)
+                .getResponse().getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Other roles and anonymous callers are not covered by the rule
+        assertThat(perform("/api/deliveries", businessUser)
+                .getResponse().getStatus()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform("/api/deliveries", null)
+                .getResponse().getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED.value());
+    }
+
+    @Test
+    void runsDirectlyAfterTheJwtFilter() {
+        SecurityFilterChain chain = filterChainProxy.getFilterChains().get(0);
+        List<Class<?>> filters = chain.getFilters().stream()
+                .map(Filter::getClass)
+                .collect(Collectors.toList());
+
+        assertThat(filters.indexOf(RateLimitFilter.class))
+                .isEqualTo(filters.indexOf(JwtAuthenticationFilter.class) + 1);
+    }
+
+    private MvcResult perform(String path, User user) throws Exception {
+        // Under Tomcat the dispatcher servlet is mapped to "/", so the servlet path is the whole path
+        MockHttpServletRequestBuilder request = get(path).servletPath(path);
+        if (user != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " +
+                    jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole()));
+        }
+        return mockMvc.perform(request).andReturn();
+    }
+}
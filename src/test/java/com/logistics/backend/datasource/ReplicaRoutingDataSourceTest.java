@@ -0,0 +1,227 @@
+package com.logistics.backend.datasource;
+
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing as the application wires it (routing data source behind a
+ * LazyConnectionDataSourceProxy, transactions from a TransactionTemplate),
+ * with two separate in-memory databases standing in for the primary and one
+ * replica. Each database answers "which one am I", so a query shows where it
+ * was routed. Replication is simulated by copying the heartbeat by hand.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private JdbcTemplate primaryJdbc;
+
+    private JdbcTemplate replicaJdbc;
+
+    private FailingDataSource replica;
+
+    private ReplicaRoutingDataSource routing;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void createDatabases() {
+        DriverManagerDataSource primary = database("primary");
+        replica = new FailingDataSource(database("replica"));
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+
+        routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), MAX_LAG);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void clearContexts() {
+        ReplicaRoutingContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndEverythingElseToThePrimary() {
+        assertThat(whoAmI(readOnly)).isEqualTo("replica");
+        assertThat(whoAmI(readWrite)).isEqualTo("primary");
+        // No transaction at all: autocommit statements may be writes
+        assertThat(whoAmI()).isEqualTo("primary");
+    }
+
+    @Test
+    void aUserWhoJustWroteReadsFromThePrimary() {
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofMinutes(1), 100);
+
+        // The write request itself, including its read-only lookups
+        assertThat(handle(interceptor, "POST", 1L, 201)).isEqualTo("primary");
+        assertThat(handle(interceptor, "GET", 1L, 200)).isEqualTo("primary");
+        assertThat(handle(interceptor, "GET", 2L, 200)).isEqualTo("replica");
+
+        // A rejected write changed nothing, so there is nothing to read back
+        assertThat(handle(interceptor, "PUT", 3L, 409)).isEqualTo("primary");
+        assertThat(handle(interceptor, "GET", 3L, 200)).isEqualTo("replica");
+
+        // Unauthenticated reads are never pinned
+        assertThat(handle(interceptor, "GET", null, 200)).isEqualTo("replica");
+    }
+
+    @Test
+    void aRecentWriterReturnsToTheReplicaAfterTheWindow() throws InterruptedException {
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofMillis(100), 100);
+
+        handle(interceptor, "POST", 1L, 201);
+        assertThat(handle(interceptor, "GET", 1L, 200)).isEqualTo("primary");
+        Thread.sleep(300);
+        assertThat(handle(interceptor, "GET", 1L, 200)).isEqualTo("replica");
+    }
+
+    @Test
+    void aReplicaThatCannotConnectIsMarkedDownUntilItAnswersAgain() {
+        replica.failing.set(true);
+
+        assertThat(whoAmI(readOnly)).isEqualTo("primary");
+        assertThat(routing.getHealthyReplicaCount()).isZero();
+
+        // Marked down, so later reads do not try it first
+        int attempts = replica.attempts.get();
+        assertThat(whoAmI(readOnly)).isEqualTo("primary");
+        assertThat(replica.attempts.get()).isEqualTo(attempts);
+
+        routing.checkHealth();
+        assertThat(routing.getHealthyReplicaCount()).isZero();
+
+        replica.failing.set(false);
+        routing.checkHealth();
+        assertThat(routing.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(whoAmI(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void aReplicaBehindTheHeartbeatIsMarkedDownUntilItCatchesUp() {
+        routing.writeHeartbeat();
+        LocalDateTime primaryBeat = heartbeat(primaryJdbc);
+        assertThat(primaryBeat).isAfter(LocalDateTime.now().minusSeconds(5));
+
+        // The replica has not applied anything for half a minute
+        setHeartbeat(replicaJdbc, primaryBeat.minusSeconds(30));
+        routing.checkHealth();
+        assertThat(routing.getHealthyReplicaCount()).isZero();
+        assertThat(routing.getReplicaLagMillis(0)).isGreaterThanOrEqualTo(30_000);
+        assertThat(whoAmI(readOnly)).isEqualTo("primary");
+
+        // Replication catches up
+        setHeartbeat(replicaJdbc, primaryBeat);
+        routing.checkHealth();
+        assertThat(routing.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(routing.getReplicaLagMillis(0)).isLessThan(MAX_LAG.toMillis());
+        assertThat(whoAmI(readOnly)).isEqualTo("replica");
+    }
+
+    // One request through the interceptor, reading in a read-only transaction as a service would
+    private String handle(ReadYourWritesInterceptor interceptor, String method, Long userId, int status) {
+        if (userId != null) {
+            AuthenticatedUser user = new AuthenticatedUser(userId, "user" + userId + "@example.com",
+                    UserRole.BUSINESS_USER, Instant.now().plusSeconds(3600));
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        } else {
+            SecurityContextHolder.clearContext();
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/deliveries");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        String routedTo = whoAmI(readOnly);
+        response.setStatus(status);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(ReplicaRoutingContext.isPrimaryRequired()).isFalse();
+        return routedTo;
+    }
+
+    private String whoAmI(TransactionTemplate transaction) {
+        return transaction.execute(status -> whoAmI());
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("select name from who_am_i", String.class);
+    }
+
+    private static LocalDateTime heartbeat(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("select beat_at from replica_heartbeat where id = 1", LocalDateTime.class);
+    }
+
+    private static void setHeartbeat(JdbcTemplate jdbc, LocalDateTime beatAt) {
+        jdbc.update("update replica_heartbeat set beat_at = ? where id = 1", beatAt);
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + "-" + DATABASES.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table who_am_i (name varchar(16) not null)");
+        jdbc.update("insert into who_am_i (name) values (?)", name);
+        // Same table as the V8 migration
+        jdbc.execute("create table replica_heartbeat (id int not null, beat_at datetime(6) not null, primary key (id))");
+        jdbc.execute("insert into replica_heartbeat (id, beat_at) values (1, current_timestamp(6))");
+        return dataSource;
+    }
+
+    private static final class FailingDataSource extends DelegatingDataSource {
+
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        private FailingDataSource(DriverManagerDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            attempts.incrementAndGet();
+            if (failing.get()) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.logistics.backend.geo;
+
+import com.logistics.backend.dto.NearbyDriverDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Radius and k-nearest results must match a brute-force haversine scan over
+ * every known position, including at cell boundaries, at the radius, across
+ * the antimeridian, at high latitudes and after drivers change cells.
+ */
+class DriverSpatialIndexTest {
+
+    private static final double CELL_SIZE_DEG = 0.05;
+
+    private DriverSpatialIndex index;
+
+    // Positions as brute force sees them
+    private final Map<Long, double[]> positions = new HashMap<>();
+
+    @BeforeEach
+    void createIndex() {
+        index = new DriverSpatialIndex();
+        ReflectionTestUtils.setField(index, "cellSizeDeg", CELL_SIZE_DEG);
+        ReflectionTestUtils.setField(index, "maxAgeMs", 600_000L);
+        index.init();
+        positions.clear();
+    }
+
+    @Test
+    void matchesBruteForceForRandomDriversAndQueries() {
+        Random random = new Random(42);
+        double[][] regions = {
+                // lat, lng, spread in degrees
+                {12.97, 77.59, 2.0},
+                {28.61, 77.20, 0.3},
+                {64.0, 25.0, 3.0},
+                {-33.9, 151.2, 1.0},
+                {0.0, 179.9, 1.0},
+                {88.0, 0.0, 1.5}
+        };
+        long id = 1;
+        for (double[] region : regions) {
+            for (int i = 0; i < 2_000; i++) {
+                put(id++, region[0] + (random.nextDouble() * 2 - 1) * region[2],
+                        wrap(region[1] + (random.nextDouble() * 2 - 1) * region[2]));
+            }
+        }
+
+        for (int q = 0; q < 300; q++) {
+            double[] region = regions[q % regions.length];
+            double lat = region[0] + (random.nextDouble() * 2 - 1) * region[2];
+            double lng = wrap(region[1] + (random.nextDouble() * 2 - 1) * region[2]);
+            double radiusKm = 1 + random.nextDouble() * 199;
+            int k = 1 + random.nextInt(20);
+
+            assertMatchesBruteForce(lat, lng, radiusKm, k);
+        }
+    }
+
+    @Test
+    void includesDriversOnCellBoundariesAndAtTheRadius() {
+        // Exactly on the lines between cells around the query cell
+        put(1L, 12.95, 77.55);
+        put(2L, 13.00, 77.60);
+        put(3L, 12.95, 77.60);
+        put(4L, 13.00, 77.55);
+        // Just inside and just outside 10 km due north of the query
+        double kmPerDegree = GeoUtils.haversineKm(12.97, 77.59, 13.97, 77.59);
+        put(5L, 12.97 + 9.999 / kmPerDegree, 77.59);
+        put(6L, 12.97 + 10.001 / kmPerDegree, 77.59);
+
+        List<Long> within = ids(index.withinRadius(12.97, 77.59, 10, 100));
+        assertThat(within).contains(1L, 2L, 3L, 4L, 5L).doesNotContain(6L);
+
+        assertMatchesBruteForce(12.97, 77.59, 10, 6);
+        assertMatchesBruteForce(13.00, 77.55, 5, 3);
+    }
+
+    @Test
+    void findsDriversAcrossTheAntimeridian() {
+        put(1L, 0.0, 179.99);
+        put(2L, 0.0, -179.99);
+
+        assertThat(ids(index.withinRadius(0.0, 179.995, 5, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.nearest(0.0, -179.995, 2, 5))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void followsDriversThatMoveBetweenCells() {
+        put(1L, 12.97, 77.59);
+        put(2L, 12.98, 77.60);
+
+        // Driver 1 leaves for Chennai, several hundred cells away
+        put(1L, 13.08, 80.27);
+
+        assertThat(ids(index.withinRadius(12.97, 77.59, 10, 10))).containsExactly(2L);
+        assertThat(ids(index.nearest(13.08, 80.27, 1, 10))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(2);
+
+        // Moving back, and crossing a single cell edge, leaves no stale membership
+        put(1L, 12.9501, 77.5999);
+        put(1L, 12.9499, 77.6001);
+        assertMatchesBruteForce(12.95, 77.60, 5, 2);
+        assertThat(ids(index.withinRadius(13.08, 80.27, 10, 10))).isEmpty();
+
+        index.remove(2L);
+        positions.remove(2L);
+        assertMatchesBruteForce(12.97, 77.59, 10, 2);
+    }
+
+    private void assertMatchesBruteForce(double lat, double lng, double radiusKm, int k) {
+        List<NearbyDriverDto> expected = bruteForce(lat, lng, radiusKm);
+
+        List<NearbyDriverDto> within = index.withinRadius(lat, lng, radiusKm, Integer.MAX_VALUE);
+        assertThat(ids(within))
+                .as("within %.1f km of %.4f,%.4f", radiusKm, lat, lng)
+                .containsExactlyInAnyOrderElementsOf(ids(expected));
+
+        List<NearbyDriverDto> nearest = index.nearest(lat, lng, k, radiusKm);
+        List<Double> expectedDistances = expected.stream()
+                .limit(k)
+                .map(NearbyDriverDto::getDistanceKm)
+                .collect(Collectors.toList());
+        assertThat(nearest.stream().map(NearbyDriverDto::getDistanceKm).collect(Collectors.toList()))
+                .as("%d nearest within %.1f km of %.4f,%.4f", k, radiusKm, lat, lng)
+                .containsExactlyElementsOf(expectedDistances);
+    }
+
+    private List<NearbyDriverDto> bruteForce(double lat, double lng, double radiusKm) {
+        List<NearbyDriverDto> results = new ArrayList<>();
+        for (Map.Entry<Long, double[]> entry : positions.entrySet()) {
+            double[] position = entry.getValue();
+            double distanceKm = GeoUtils.haversineKm(lat, lng, position[0], position[1]);
+            if (distanceKm <= radiusKm) {
+                results.add(new NearbyDriverDto(entry.getKey(), position[0], position[1], distanceKm, null));
+            }
+        }
+        results.sort(Comparator.comparingDouble(NearbyDriverDto::getDistanceKm));
+        return results;
+    }
+
+    private void put(Long driverId, double lat, double lng) {
+        index.update(driverId, lat, lng, System.currentTimeMillis());
+        positions.put(driverId, new double[]{lat, lng});
+    }
+
+    private static double wrap(double lng) {
+        return lng > 180 ? lng - 360 : lng < -180 ? lng + 360 : lng;
+    }
+
+    private static List<Long> ids(List<NearbyDriverDto> drivers) {
+        return drivers.stream().map(NearbyDriverDto::getDriverId).collect(Collectors.toList());
+    }
+}
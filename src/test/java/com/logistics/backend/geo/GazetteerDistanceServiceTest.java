@@ -0,0 +1,35 @@
+package com.logistics.backend.geo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two addresses that only resolve to the same gazetteer place have no
+ * estimate; a confident 0 km would price the delivery as free of distance.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GazetteerDistanceServiceTest {
+
+    @Autowired
+    private GazetteerDistanceService distanceService;
+
+    @Test
+    void addressesInTheSamePlaceHaveNoEstimate() {
+        assertThat(distanceService.estimateKm("12 MG Road, Bengaluru", "45 Whitefield Main Road, Bengaluru"))
+                .isEmpty();
+        // Also when the pair is served from the caches on a second call
+        assertThat(distanceService.estimateKm("12 MG Road, Bengaluru", "45 Whitefield Main Road, Bengaluru"))
+                .isEmpty();
+    }
+
+    @Test
+    void addressesInDifferentPlacesHaveAPositiveEstimate() {
+        assertThat(distanceService.estimateKm("12 MG Road, Bengaluru", "7 Marine Drive, Mumbai"))
+                .hasValueSatisfying(km -> assertThat(km).isPositive());
+    }
+}
@@ -0,0 +1,133 @@
+package com.logistics.backend.ratelimit;
+
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which rules a request matches, whose bucket it draws from, and that a
+ * request rejected by one rule keeps no token from the others. Every rule
+ * here refills too slowly to matter during a test.
+ */
+class RateLimiterTest {
+
+    private static final String ADDRESS = "10.0.0.1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rulesMatchOnMethodPathAndRole() {
+        RateLimiter limiter = limiter(rule("drivers-post", "POST", "/api/deliveries/**", 1,
+                RateLimitScope.USER, UserRole.DRIVER));
+        AuthenticatedUser driver = user(1L, UserRole.DRIVER);
+
+        assertThat(limiter.tryAcquire("POST", "/api/deliveries/7/status", driver, ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/deliveries", driver, ADDRESS)).isPositive();
+
+        // Other methods, paths, roles and anonymous callers are not covered
+        assertThat(limiter.tryAcquire("GET", "/api/deliveries", driver, ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/locations", driver, ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/deliveries", user(2L, UserRole.BUSINESS_USER), ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/deliveries", null, ADDRESS)).isZero();
+    }
+
+    @Test
+    void userScopeKeysByUserIdOrClientAddress() {
+        RateLimiter limiter = limiter(rule("reads", null, "/api/**", 1, RateLimitScope.USER));
+
+        assertThat(limiter.tryAcquire("GET", "/api/deliveries", user(1L, UserRole.DRIVER), ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("GET", "/api/deliveries", user(1L, UserRole.DRIVER), "10.0.0.2")).isPositive();
+        assertThat(limiter.tryAcquire("GET", "/api/deliveries", user(2L, UserRole.DRIVER), ADDRESS)).isZero();
+
+        // Anonymous callers have a bucket per address, apart from the users behind it
+        assertThat(limiter.tryAcquire("GET", "/api/deliveries", null, ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("GET", "/api/deliveries", null, ADDRESS)).isPositive();
+        assertThat(limiter.tryAcquire("GET", "/api/deliveries", null, "10.0.0.2")).isZero();
+    }
+
+    @Test
+    void roleScopeSharesOneBucketAcrossTheRole() {
+        RateLimiter limiter = limiter(rule("fleet", "POST", "/api/locations", 2, RateLimitScope.ROLE,
+                UserRole.DRIVER, UserRole.BUSINESS_USER));
+
+        assertThat(limiter.tryAcquire("POST", "/api/locations", user(1L, UserRole.DRIVER), ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/locations", user(2L, UserRole.DRIVER), ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/locations", user(3L, UserRole.DRIVER), ADDRESS)).isPositive();
+
+        // Each role has its own bucket
+        assertThat(limiter.tryAcquire("POST", "/api/locations", user(4L, UserRole.BUSINESS_USER), ADDRESS))
+                .isZero();
+    }
+
+    @Test
+    void aRejectedRequestKeepsNoTokenFromEarlierRules() {
+        // Bulk uploads match both rules; "bulk" also covers PUT, "write" does not
+        RateLimiter limiter = limiter(
+                rule("bulk", null, "/api/deliveries/bulk/**", 2, RateLimitScope.USER),
+                rule("write", "POST", "/api/deliveries/**", 1, RateLimitScope.USER));
+        AuthenticatedUser businessUser = user(1L, UserRole.BUSINESS_USER);
+
+        assertThat(limiter.tryAcquire("POST", "/api/deliveries/bulk/upload", businessUser, ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/deliveries/bulk/upload", businessUser, ADDRESS)).isPositive();
+        assertThat(rejected("write")).isEqualTo(1);
+        assertThat(rejected("bulk")).isZero();
+
+        // The rejected upload gave its "bulk" token back
+        assertThat(limiter.tryAcquire("PUT", "/api/deliveries/bulk/upload", businessUser, ADDRESS)).isZero();
+        assertThat(limiter.tryAcquire("PUT", "/api/deliveries/bulk/upload", businessUser, ADDRESS)).isPositive();
+    }
+
+    @Test
+    void noRulesOrDisabledMeansNoLimiting() {
+        assertThat(limiter().isEnabled()).isFalse();
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(false);
+        properties.getRules().add(rule("reads", null, "/api/**", 1, RateLimitScope.USER));
+        assertThat(limiter(properties).isEnabled()).isFalse();
+    }
+
+    private double rejected(String rule) {
+        return meterRegistry.get("rate_limit.rejected").tag("rule", rule).counter().count();
+    }
+
+    private RateLimiter limiter(RateLimitProperties.Rule... rules) {
+        RateLimitProperties properties = new RateLimitProperties();
+        for (RateLimitProperties.Rule rule : rules) {
+            properties.getRules().add(rule);
+        }
+        return limiter(properties);
+    }
+
+    private RateLimiter limiter(RateLimitProperties properties) {
+        RateLimiter limiter = new RateLimiter();
+        ReflectionTestUtils.setField(limiter, "properties", properties);
+        ReflectionTestUtils.setField(limiter, "meterRegistry", meterRegistry);
+        limiter.init();
+        return limiter;
+    }
+
+    private static RateLimitProperties.Rule rule(String name, String method, String path, long capacity,
+                                                 RateLimitScope scope, UserRole... roles) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName(name);
+        rule.setMethod(method);
+        rule.setPath(path);
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(0.001);
+        rule.setScope(scope);
+        rule.setRoles(roles.length == 0 ? EnumSet.noneOf(UserRole.class) : EnumSet.of(roles[0], roles));
+        return rule;
+    }
+
+    private static AuthenticatedUser user(Long id, UserRole role) {
+        return new AuthenticatedUser(id, "user" + id + "@example.com", role, Instant.now().plusSeconds(3600));
+    }
+}
@@ -0,0 +1,70 @@
+package com.logistics.backend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bounded size with least-recently-used eviction, and the idle sweep. A
+ * single stripe keeps the eviction order predictable.
+ */
+class TokenBucketStoreTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private static final long START = 5 * SECOND;
+
+    // One token, refilled after ten seconds
+    private final RateLimitRule rule = TokenBucketTest.rule(1, 0.1);
+
+    @Test
+    void evictsTheLeastRecentlyUsedKeyWhenFull() {
+        TokenBucketStore store = new TokenBucketStore(1, 2);
+        assertThat(store.tryAcquire("a", rule, START)).isZero();
+        assertThat(store.tryAcquire("b", rule, START)).isZero();
+        // Touching "a" makes "b" the eldest
+        assertThat(store.tryAcquire("a", rule, START)).isPositive();
+
+        assertThat(store.tryAcquire("c", rule, START)).isZero();
+
+        assertThat(store.size()).isEqualTo(2);
+        // "b" was dropped and comes back full; "c" was not
+        assertThat(store.tryAcquire("b", rule, START)).isZero();
+        assertThat(store.tryAcquire("c", rule, START)).isPositive();
+    }
+
+    @Test
+    void sweepsOnlyBucketsThatHaveRefilled() {
+        TokenBucketStore store = new TokenBucketStore(4, 100);
+        store.tryAcquire("early", rule, START);
+        store.tryAcquire("late", rule, START + 5 * SECOND);
+
+        assertThat(store.evictIdle(START + 9 * SECOND)).isZero();
+        assertThat(store.evictIdle(START + 10 * SECOND)).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.evictIdle(START + 15 * SECOND)).isEqualTo(1);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void refundsTheKeysBucketAndIgnoresEvictedKeys() {
+        TokenBucketStore store = new TokenBucketStore(1, 1);
+        store.tryAcquire("a", rule, START);
+        store.refund("a", START);
+        assertThat(store.tryAcquire("a", rule, START)).isZero();
+
+        store.refund("missing", START);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void splitsMaxKeysAcrossAPowerOfTwoStripes() {
+        // Three stripes round up to four, each holding at most 25 keys
+        TokenBucketStore store = new TokenBucketStore(3, 100);
+        for (int i = 0; i < 1000; i++) {
+            store.tryAcquire("key-" + i, rule, START);
+        }
+
+        assertThat(store.size()).isLessThanOrEqualTo(100);
+    }
+}
@@ -0,0 +1,85 @@
+package com.logistics.backend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refill arithmetic on an explicit clock: two tokens, one every two seconds.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private static final long START = 5 * SECOND;
+
+    private final RateLimitRule rule = rule(2, 0.5);
+
+    @Test
+    void startsFullAndReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(rule, START);
+
+        assertThat(bucket.tryAcquire(START)).isZero();
+        assertThat(bucket.tryAcquire(START)).isZero();
+        assertThat(bucket.tryAcquire(START)).isEqualTo(2 * SECOND);
+        // A rejected attempt takes nothing
+        assertThat(bucket.tryAcquire(START)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void refillsInProportionToElapsedTime() {
+        TokenBucket bucket = drained(START);
+
+        assertThat(bucket.tryAcquire(START + SECOND)).isEqualTo(SECOND);
+        assertThat(bucket.tryAcquire(START + 2 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(START + 2 * SECOND)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void neverHoldsMoreThanItsCapacity() {
+        TokenBucket bucket = drained(START);
+        long muchLater = START + 3600 * SECOND;
+
+        assertThat(bucket.tryAcquire(muchLater)).isZero();
+        assertThat(bucket.tryAcquire(muchLater)).isZero();
+        assertThat(bucket.tryAcquire(muchLater)).isPositive();
+    }
+
+    @Test
+    void aRefundIsCappedAtCapacity() {
+        TokenBucket bucket = new TokenBucket(rule, START);
+        bucket.refund(START);
+
+        assertThat(bucket.tryAcquire(START)).isZero();
+        assertThat(bucket.tryAcquire(START)).isZero();
+        assertThat(bucket.tryAcquire(START)).isPositive();
+
+        bucket.refund(START);
+        assertThat(bucket.tryAcquire(START)).isZero();
+    }
+
+    @Test
+    void isIdleOnceItWouldHaveRefilledCompletely() {
+        TokenBucket bucket = drained(START);
+
+        assertThat(rule.getFullRefillNanos()).isEqualTo(4 * SECOND);
+        assertThat(bucket.isIdle(START + 4 * SECOND - 1)).isFalse();
+        assertThat(bucket.isIdle(START + 4 * SECOND)).isTrue();
+    }
+
+    private TokenBucket drained(long now) {
+        TokenBucket bucket = new TokenBucket(rule, now);
+        bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+        return bucket;
+    }
+
+    static RateLimitRule rule(long capacity, double refillPerSecond) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName("test");
+        rule.setPath("/**");
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(refillPerSecond);
+        return new RateLimitRule(rule);
+    }
+}
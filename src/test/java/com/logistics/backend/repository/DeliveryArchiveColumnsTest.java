@@ -0,0 +1,58 @@
+package com.logistics.backend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The column lists moveToArchive copies with must name every column of the
+ * hot and archive tables. A column added by a migration to one table but not
+ * the list, or not the other table, would otherwise be dropped or fail the
+ * nightly job.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeliveryArchiveColumnsTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deliveryColumnsMatchBothTables() {
+        List<String> listed = split(DeliveryArchiveRepository.DELIVERY_COLUMNS);
+
+        assertThat(columnsOf("deliveries")).containsExactlyInAnyOrderElementsOf(listed);
+        List<String> archived = new ArrayList<>(listed);
+        archived.add("archived_at");
+        assertThat(columnsOf("deliveries_archive")).containsExactlyInAnyOrderElementsOf(archived);
+    }
+
+    @Test
+    void historyColumnsMatchBothTables() {
+        List<String> listed = split(DeliveryArchiveRepository.HISTORY_COLUMNS);
+
+        assertThat(columnsOf("status_history")).containsExactlyInAnyOrderElementsOf(listed);
+        assertThat(columnsOf("status_history_archive")).containsExactlyInAnyOrderElementsOf(listed);
+    }
+
+    private List<String> columnsOf(String table) {
+        return jdbcTemplate.queryForList("select column_name from information_schema.columns " +
+                        "where table_schema = 'PUBLIC' and table_name = ?", String.class, table.toUpperCase(Locale.ROOT))
+                .stream()
+                .map(column -> column.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> split(String columns) {
+        return List.of(columns.split(",\\s*"));
+    }
+}
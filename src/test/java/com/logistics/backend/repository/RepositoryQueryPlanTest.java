@@ -0,0 +1,278 @@
+package com.logistics.backend.repository;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.service.DeliveryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL each repository method actually sends and fails if
+ * any table is read without seeking an index on its leading column. The
+ * schema comes from the Flyway migrations, so a dropped index or a query that
+ * stops matching one fails here. Whole-table aggregates may read a whole
+ * index, never the table.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RepositoryQueryPlanTest {
+
+    // H2 marks each table access in a plan as /* PUBLIC.<index or table.tableScan>[: <index conditions>] */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.([\\w.]+)(?:: (.*?))? \\*/", Pattern.DOTALL);
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? new StatementCapturingDataSource((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    // Records the SQL prepared on the test thread while a capture is running
+    static class StatementCapturingDataSource extends DelegatingDataSource {
+
+        StatementCapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        List<String> statements = CAPTURED.get();
+                        if (statements != null && method.getName().startsWith("prepare")) {
+                            statements.add((String) args[0]);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    });
+        }
+    }
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private StatusHistoryRepository statusHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private DeliveryArchiveRepository archiveRepository;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User businessUser;
+
+    private User driver;
+
+    private Long deliveryId;
+
+    @BeforeEach
+    void createRowsAndAnalyze() {
+        businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        driver = userRepository.save(TestData.user(UserRole.DRIVER));
+        for (int i = 0; i < 20; i++) {
+            DeliveryDto created = deliveryService.createDelivery(TestData.delivery(), businessUser.getId());
+            deliveryId = created.getId();
+            if (i % 2 == 0) {
+                deliveryService.assignDriver(deliveryId, driver.getId());
+            }
+        }
+        // Plans on empty tables say little; give H2 row counts and selectivity
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void deliveryQueriesSeekAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertIndexSeeks(() -> deliveryRepository.findById(deliveryId));
+        assertIndexSeeks(() -> deliveryRepository.findByBusinessUserId(businessUser.getId()));
+        assertIndexSeeks(() -> deliveryRepository.findByDriverId(driver.getId()));
+        assertIndexSeeks(() -> deliveryRepository.findByStatus(DeliveryStatus.ACCEPTED));
+        assertIndexSeeks(() -> deliveryRepository.findByStatusAndDriverIsNull(DeliveryStatus.PENDING));
+        assertIndexSeeks(() -> deliveryRepository.findStatusById(deliveryId));
+        assertIndexSeeks(() -> deliveryRepository.findUpdatedAtById(deliveryId));
+        assertIndexSeeks(() -> deliveryRepository.updateStatusIfCurrent(
+                -1L, DeliveryStatus.PENDING, now, DeliveryStatus.ACCEPTED, now));
+        assertIndexSeeks(() -> deliveryRepository.completeIfCurrent(
+                -1L, DeliveryStatus.ON_WAY, now, DeliveryStatus.DELIVERED, null, null, now));
+        assertIndexSeeks(() -> deliveryRepository.assignDriverIfUnassigned(-1L, driver, DeliveryStatus.PENDING, now));
+        assertIndexSeeks(() -> deliveryRepository.findDtoById(deliveryId));
+        assertIndexSeeks(() -> deliveryRepository.findDtosByStatusAndDriverIsNull(DeliveryStatus.PENDING));
+        assertIndexSeeks(() -> deliveryRepository.findDispatchQueue(DeliveryStatus.PENDING));
+        assertIndexSeeks(() -> deliveryRepository.countByDriverAndStatusIn(
+                EnumSet.of(DeliveryStatus.ACCEPTED, DeliveryStatus.ON_WAY)));
+        assertIndexSeeks(() -> deliveryRepository.existsForBusinessUserAndDriver(
+                businessUser.getId(), driver.getId(), EnumSet.of(DeliveryStatus.ACCEPTED, DeliveryStatus.ON_WAY)));
+        assertIndexSeeks(() -> deliveryRepository.sumActualCostByStatus(DeliveryStatus.DELIVERED));
+        assertIndexSeeks(() -> deliveryRepository.findFirstPageByBusinessUser(businessUser.getId(), page));
+        assertIndexSeeks(() -> deliveryRepository.findPageByBusinessUserAfter(businessUser.getId(), now, deliveryId, page));
+        assertIndexSeeks(() -> deliveryRepository.findFirstPageByDriver(driver.getId(), page));
+        assertIndexSeeks(() -> deliveryRepository.findPageByDriverAfter(driver.getId(), now, deliveryId, page));
+        assertIndexSeeks(() -> deliveryRepository.findListingVersionByStatus(DeliveryStatus.PENDING),
+                "IDX_DELIVERIES_STATUS_UPDATED");
+
+        assertNoTableScan(() -> deliveryRepository.countByStatus());
+    }
+
+    @Test
+    void statusHistoryQueriesSeekAnIndex() {
+        assertIndexSeeks(() -> statusHistoryRepository.findByDeliveryIdOrderByChangedAtDesc(deliveryId));
+        assertIndexSeeks(() -> statusHistoryRepository.findTimeline(deliveryId));
+    }
+
+    @Test
+    void userQueriesSeekAnIndex() {
+        // Misses are not cached, so these always reach the database
+        assertIndexSeeks(() -> userRepository.findById(-1L));
+        assertIndexSeeks(() -> userRepository.findByEmail("nobody@example.com"));
+        assertIndexSeeks(() -> userRepository.findByRole(UserRole.DRIVER));
+        assertIndexSeeks(() -> userRepository.findByRoleAndIsActive(UserRole.DRIVER, true));
+    }
+
+    @Test
+    void refreshTokenQueriesSeekAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertIndexSeeks(() -> refreshTokenRepository.findByTokenHash("unknown"));
+        assertIndexSeeks(() -> refreshTokenRepository.findByTokenHashForUpdate("unknown"));
+        assertIndexSeeks(() -> refreshTokenRepository.revoke(-1L, now));
+        assertIndexSeeks(() -> refreshTokenRepository.rotate(-1L, now));
+        assertIndexSeeks(() -> refreshTokenRepository.existsRevokedWithoutRotationSince(driver.getId(), now));
+        assertIndexSeeks(() -> refreshTokenRepository.revokeAllForUser(driver.getId(), now));
+        assertIndexSeeks(() -> refreshTokenRepository.deleteExpiredBefore(now.minusDays(30)));
+    }
+
+    @Test
+    void archiveQueriesSeekAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertIndexSeeks(() -> archiveRepository.findDtoById(deliveryId));
+        assertIndexSeeks(() -> archiveRepository.findStatusById(deliveryId));
+        assertIndexSeeks(() -> archiveRepository.findUpdatedAtById(deliveryId));
+        assertIndexSeeks(() -> archiveRepository.findPageByBusinessUser(businessUser.getId(), null, null, 10));
+        assertIndexSeeks(() -> archiveRepository.findPageByBusinessUser(businessUser.getId(), now, deliveryId, 10));
+        assertIndexSeeks(() -> archiveRepository.findPageByDriver(driver.getId(), null, null, 10));
+        assertIndexSeeks(() -> archiveRepository.findPageByDriver(driver.getId(), now, deliveryId, 10));
+        assertIndexSeeks(() -> archiveRepository.findTimeline(deliveryId));
+        assertIndexSeeks(() -> archiveRepository.findListingVersionByBusinessUser(businessUser.getId()));
+        assertIndexSeeks(() -> archiveRepository.findListingVersionByDriver(driver.getId()));
+        assertIndexSeeks(() -> archiveRepository.sumActualCostByStatus(DeliveryStatus.DELIVERED));
+        assertIndexSeeks(() -> archiveRepository.countByDriverAndStatus(DeliveryStatus.DELIVERED));
+        assertIndexSeeks(() -> archiveRepository.findArchivableIds(
+                EnumSet.of(DeliveryStatus.DELIVERED, DeliveryStatus.CANCELLED), now.minusDays(90), 500),
+                "IDX_DELIVERIES_STATUS_UPDATED");
+        // Nothing matches -1, so nothing is moved
+        assertIndexSeeks(() -> archiveRepository.moveToArchive(List.of(-1L), now));
+
+        assertNoTableScan(() -> archiveRepository.countByStatus());
+    }
+
+    private void assertIndexSeeks(Runnable call) {
+        assertIndexSeeks(call, null);
+    }
+
+    private void assertIndexSeeks(Runnable call, String expectedIndex) {
+        for (String sql : statementsOf(call)) {
+            String plan = explain(sql);
+            if (expectedIndex != null) {
+                assertThat(plan).as("plan").contains("/* PUBLIC." + expectedIndex + ":");
+            }
+            Matcher access = TABLE_ACCESS.matcher(plan);
+            while (access.find()) {
+                String index = access.group(1);
+                String conditions = access.group(2);
+                assertThat(index).as("table scan in\n%s", plan).doesNotEndWith(".tableScan");
+                assertThat(conditions).as("full scan of %s in\n%s", index, plan).isNotNull();
+                String leadingColumn = leadingColumn(index);
+                assertThat(conditions.replace("\"", "").split("\\s+AND\\s+"))
+                        .as("%s is not searched on its leading column %s in\n%s", index, leadingColumn, plan)
+                        .anyMatch(condition -> condition.trim().matches("(\\w+\\.)?" + leadingColumn + "\\b.*"));
+            }
+        }
+    }
+
+    private void assertNoTableScan(Runnable call) {
+        for (String sql : statementsOf(call)) {
+            String plan = explain(sql);
+            Matcher access = TABLE_ACCESS.matcher(plan);
+            while (access.find()) {
+                assertThat(access.group(1)).as("table scan in\n%s", plan).doesNotEndWith(".tableScan");
+            }
+        }
+    }
+
+    private List<String> statementsOf(Runnable call) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            transactionTemplate.executeWithoutResult(status -> call.run());
+        } finally {
+            CAPTURED.remove();
+        }
+        assertThat(statements).as("statements sent").isNotEmpty();
+        return statements;
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private String leadingColumn(String index) {
+        return jdbcTemplate.queryForObject("select column_name from information_schema.index_columns " +
+                "where index_schema = 'PUBLIC' and index_name = ? and ordinal_position = 1", String.class, index);
+    }
+}
@@ -0,0 +1,92 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.BulkDeliveryResponse;
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares per-row throughput of bulk ingestion with createDelivery in a
+ * loop, the baseline the bulk endpoint was built to beat by 10x. In-memory
+ * H2 has no commit cost, so the test profile lowers the floor; run against
+ * MySQL with -Dspring.datasource.url=... -Dbulk-ingest.expected-speedup=10.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkIngestThroughputTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIngestThroughputTest.class);
+
+    private static final int LOOP_ROWS = 1000;
+    private static final int BULK_ROWS = 10000;
+    private static final int ROUNDS = 3;
+
+    @Value("${bulk-ingest.expected-speedup:10}")
+    private double expectedSpeedup;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bulkBeatsCreateDeliveryLoopPerRow() {
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        Long userId = businessUser.getId();
+
+        // Warm up both paths so the JIT and the id pool are settled
+        loop(userId, 200);
+        bulk(userId, 2000);
+
+        double loopRate = 0;
+        double bulkRate = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            loopRate = Math.max(loopRate, loop(userId, LOOP_ROWS));
+            bulkRate = Math.max(bulkRate, bulk(userId, BULK_ROWS));
+        }
+
+        double speedup = bulkRate / loopRate;
+        log.info("createDelivery loop: {} rows/s, bulk: {} rows/s, speedup {}x",
+                Math.round(loopRate), Math.round(bulkRate), String.format("%.1f", speedup));
+        assertThat(speedup).isGreaterThanOrEqualTo(expectedSpeedup);
+    }
+
+    private double loop(Long userId, int rows) {
+        long started = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            deliveryService.createDelivery(TestData.delivery(), userId);
+        }
+        return rows / seconds(started);
+    }
+
+    private double bulk(Long userId, int rows) {
+        List<DeliveryDto> deliveries = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            deliveries.add(TestData.delivery());
+        }
+        long started = System.nanoTime();
+        BulkDeliveryResponse response = deliveryService.createDeliveries(deliveries, userId);
+        double rate = rows / seconds(started);
+        assertThat(response.getCreated()).isEqualTo(rows);
+        return rate;
+    }
+
+    private static double seconds(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000_000d;
+    }
+}
@@ -0,0 +1,210 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.dto.DeliveryPage;
+import com.logistics.backend.dto.DeliveryStats;
+import com.logistics.backend.dto.StatusHistoryDto;
+import com.logistics.backend.dto.StatusUpdateRequest;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.StatusHistoryRepository;
+import com.logistics.backend.repository.UserRepository;
+import com.logistics.backend.security.AuthenticatedUser;
+import com.logistics.backend.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archiving moves old terminal deliveries and their history out of the hot
+ * tables without changing anything a client can observe: single reads,
+ * timelines, keyset listings across the hot/archive boundary, stats and
+ * ETags. The test profile disables the nightly job, so it is enabled here and
+ * run directly.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "archive.enabled=true",
+        // Two archivable deliveries, so the job has to loop over chunks
+        "archive.chunk-size=1",
+        "status-history.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class DeliveryArchiveServiceTest {
+
+    @Autowired
+    private DeliveryArchiveService archiveService;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private DeliveryStatsService deliveryStatsService;
+
+    @Autowired
+    private DeliveryVersions deliveryVersions;
+
+    @Autowired
+    private StatusHistoryWriter statusHistoryWriter;
+
+    @Autowired
+    private StatusHistoryRepository statusHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesOldTerminalDeliveriesWithoutChangingWhatClientsSee() {
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        User driver = userRepository.save(TestData.user(UserRole.DRIVER));
+
+        // Still active, and created before both archived deliveries
+        Long oldActive = create(businessUser, driver);
+        Long cancelled = create(businessUser, driver);
+        updateStatus(cancelled, DeliveryStatus.CANCELLED, driver);
+        Long delivered = create(businessUser, driver);
+        deliver(delivered, driver);
+        // Terminal but too recent to archive
+        Long recentDelivered = create(businessUser, driver);
+        deliver(recentDelivered, driver);
+        Long recentPending = create(businessUser, null);
+        statusHistoryWriter.flush();
+
+        backdate(oldActive, 200, 200);
+        backdate(cancelled, 100, 95);
+        backdate(delivered, 150, 91);
+
+        DeliveryDto cancelledBefore = deliveryService.getDeliveryById(cancelled);
+        DeliveryDto deliveredBefore = deliveryService.getDeliveryById(delivered);
+        List<StatusHistoryDto> cancelledTimeline = statusHistoryRepository.findTimeline(cancelled);
+        List<StatusHistoryDto> deliveredTimeline = statusHistoryRepository.findTimeline(delivered);
+        List<DeliveryDto> businessListing = walk(businessUser.getId(), deliveryService::getDeliveriesByBusinessUser);
+        List<DeliveryDto> driverListing = walk(driver.getId(), deliveryService::getDeliveriesByDriver);
+        DeliveryStats statsBefore = deliveryStatsService.getStats();
+        String businessEtag = deliveryVersions.listingEtag(authenticated(businessUser), null, 2);
+        String driverEtag = deliveryVersions.listingEtag(authenticated(driver), null, 2);
+
+        assertThat(businessListing).extracting(DeliveryDto::getId)
+                .containsExactly(recentPending, recentDelivered, cancelled, delivered, oldActive);
+        assertThat(cancelledTimeline).hasSize(1);
+        assertThat(deliveredTimeline).hasSize(3);
+
+        archiveService.archive();
+
+        // Copied with their history, and gone from the hot tables
+        assertThat(count("deliveries", "id", cancelled, delivered)).isZero();
+        assertThat(count("status_history", "delivery_id", cancelled, delivered)).isZero();
+        assertThat(count("deliveries_archive", "id", cancelled, delivered)).isEqualTo(2);
+        assertThat(count("status_history_archive", "delivery_id", cancelled, delivered)).isEqualTo(4);
+        assertThat(count("deliveries", "id", oldActive, recentDelivered, recentPending)).isEqualTo(3);
+        assertThat(count("deliveries_archive", "id", oldActive, recentDelivered, recentPending)).isZero();
+
+        // Reads fall through to the archive
+        assertThat(deliveryService.getDeliveryById(cancelled)).isEqualTo(cancelledBefore);
+        assertThat(deliveryService.getDeliveryById(delivered)).isEqualTo(deliveredBefore);
+        assertThat(deliveryService.getDeliveryUpdatedAt(delivered)).contains(deliveredBefore.getUpdatedAt());
+        assertThat(history(cancelled, businessUser).getBody()).isEqualTo(cancelledTimeline);
+        assertThat(history(delivered, driver).getBody()).isEqualTo(deliveredTimeline);
+
+        // Pages of two cross from hot to archive and back to hot for the oldest delivery
+        assertThat(walk(businessUser.getId(), deliveryService::getDeliveriesByBusinessUser))
+                .isEqualTo(businessListing);
+        assertThat(walk(driver.getId(), deliveryService::getDeliveriesByDriver)).isEqualTo(driverListing);
+
+        assertThat(deliveryStatsService.getStats()).usingRecursiveComparison()
+                .ignoringFields("lastFlushedAt")
+                .isEqualTo(statsBefore);
+        assertThat(deliveryVersions.listingEtag(authenticated(businessUser), null, 2)).isEqualTo(businessEtag);
+        assertThat(deliveryVersions.listingEtag(authenticated(driver), null, 2)).isEqualTo(driverEtag);
+    }
+
+    private Long create(User businessUser, User driver) {
+        Long deliveryId = deliveryService.createDelivery(TestData.delivery(), businessUser.getId()).getId();
+        if (driver != null) {
+            deliveryService.assignDriver(deliveryId, driver.getId());
+        }
+        return deliveryId;
+    }
+
+    private void deliver(Long deliveryId, User driver) {
+        updateStatus(deliveryId, DeliveryStatus.ACCEPTED, driver);
+        updateStatus(deliveryId, DeliveryStatus.ON_WAY, driver);
+        deliveryService.updateDeliveryStatus(deliveryId, new StatusUpdateRequest(
+                DeliveryStatus.DELIVERED, new BigDecimal("12.50"), new BigDecimal("240.00")), driver.getId());
+    }
+
+    private void updateStatus(Long deliveryId, DeliveryStatus newStatus, User user) {
+        deliveryService.updateDeliveryStatus(deliveryId, new StatusUpdateRequest(newStatus, null, null), user.getId());
+    }
+
+    private void backdate(Long deliveryId, int createdDaysAgo, int updatedDaysAgo) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("update deliveries set created_at = ?, updated_at = ? where id = ?",
+                now.minusDays(createdDaysAgo), now.minusDays(updatedDaysAgo), deliveryId);
+    }
+
+    private List<DeliveryDto> walk(Long userId, PageLoader loader) {
+        List<DeliveryDto> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            DeliveryPage page = loader.load(userId, cursor, 2);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    private long count(String table, String column, Long... ids) {
+        StringBuilder in = new StringBuilder();
+        for (Long id : ids) {
+            in.append(in.length() == 0 ? "" : ", ").append(id);
+        }
+        return jdbcTemplate.queryForObject(
+                "select count(*) from " + table + " where " + column + " in (" + in + ")", Long.class);
+    }
+
+    private ResponseEntity<List<StatusHistoryDto>> history(Long deliveryId, User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole()));
+        ResponseEntity<List<StatusHistoryDto>> response = restTemplate.exchange(
+                "/api/deliveries/" + deliveryId + "/history", HttpMethod.GET, new HttpEntity<>(headers),
+                new ParameterizedTypeReference<List<StatusHistoryDto>>() { });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response;
+    }
+
+    private static AuthenticatedUser authenticated(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), Instant.now().plusSeconds(3600));
+    }
+
+    private interface PageLoader {
+        DeliveryPage load(Long userId, String cursor, Integer size);
+    }
+}
@@ -0,0 +1,191 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.dto.StatusUpdateRequest;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.exception.ConflictException;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races many threads over the same deliveries. Every contested assignment and
+ * status change must have exactly one winner, losers must get a
+ * ConflictException, and the status history must record exactly the changes
+ * that won.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeliveryConcurrencyStressTest {
+
+    private static final int DELIVERIES = 20;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatusHistoryWriter statusHistoryWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService executor;
+
+    private User businessUser;
+
+    private List<User> drivers;
+
+    private List<Long> deliveryIds;
+
+    @BeforeEach
+    void createDeliveries() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        drivers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            drivers.add(userRepository.save(TestData.user(UserRole.DRIVER)));
+        }
+        deliveryIds = new ArrayList<>();
+        for (int i = 0; i < DELIVERIES; i++) {
+            deliveryIds.add(deliveryService.createDelivery(TestData.delivery(), businessUser.getId()).getId());
+        }
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void eachDeliveryIsAssignedToExactlyOneDriver() throws Exception {
+        Map<Long, Long> winners = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (User driver : drivers) {
+            tasks.add(() -> {
+                for (Long deliveryId : deliveryIds) {
+                    try {
+                        deliveryService.assignDriver(deliveryId, driver.getId());
+                        assertThat(winners.putIfAbsent(deliveryId, driver.getId())).isNull();
+                    } catch (ConflictException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        runTogether(tasks);
+
+        assertThat(winners).hasSize(DELIVERIES);
+        assertThat(conflicts.get()).isEqualTo(DELIVERIES * (THREADS - 1));
+        for (Long deliveryId : deliveryIds) {
+            DeliveryDto delivery = deliveryService.getDeliveryById(deliveryId);
+            assertThat(delivery.getDriver().getId()).isEqualTo(winners.get(deliveryId));
+        }
+    }
+
+    @Test
+    void eachStatusChangeHasOneWinnerAndOneHistoryRow() throws Exception {
+        // Half the threads drive deliveries to DELIVERED, the other half try to cancel them
+        Map<Long, List<DeliveryStatus>> applied = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean canceller = t % 2 == 1;
+            User actor = drivers.get(t);
+            tasks.add(() -> {
+                for (Long deliveryId : deliveryIds) {
+                    List<DeliveryStatus> steps = canceller
+                            ? List.of(DeliveryStatus.CANCELLED)
+                            : List.of(DeliveryStatus.ACCEPTED, DeliveryStatus.ON_WAY, DeliveryStatus.DELIVERED);
+                    for (DeliveryStatus step : steps) {
+                        try {
+                            deliveryService.updateDeliveryStatus(deliveryId, request(step), actor.getId());
+                            applied.computeIfAbsent(deliveryId, id -> Collections.synchronizedList(new ArrayList<>()))
+                                    .add(step);
+                        } catch (ConflictException ex) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        runTogether(tasks);
+        statusHistoryWriter.flush();
+
+        assertThat(conflicts.get()).isPositive();
+        for (Long deliveryId : deliveryIds) {
+            List<DeliveryStatus> won = applied.getOrDefault(deliveryId, List.of());
+            for (DeliveryStatus status : DeliveryStatus.values()) {
+                assertThat(won.stream().filter(status::equals).count())
+                        .as("delivery %d moved to %s", deliveryId, status)
+                        .isLessThanOrEqualTo(1);
+            }
+            assertThat(won.contains(DeliveryStatus.DELIVERED) && won.contains(DeliveryStatus.CANCELLED))
+                    .as("delivery %d both delivered and cancelled", deliveryId)
+                    .isFalse();
+
+            DeliveryStatus finalStatus = deliveryService.getDeliveryById(deliveryId).getStatus();
+            assertThat(finalStatus.isTerminal()).isTrue();
+            assertThat(won).contains(finalStatus);
+
+            Long historyRows = jdbcTemplate.queryForObject(
+                    "select count(*) from status_history where delivery_id = ? and old_status is not null",
+                    Long.class, deliveryId);
+            assertThat(historyRows).isEqualTo(won.size());
+        }
+    }
+
+    private void runTogether(List<Callable<Void>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private static StatusUpdateRequest request(DeliveryStatus status) {
+        if (status == DeliveryStatus.DELIVERED) {
+            return new StatusUpdateRequest(status, new BigDecimal("12.50"), new BigDecimal("180.00"));
+        }
+        return new StatusUpdateRequest(status, null, null);
+    }
+}
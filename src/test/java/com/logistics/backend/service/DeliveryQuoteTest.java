@@ -0,0 +1,55 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.QuoteItem;
+import com.logistics.backend.dto.QuoteResult;
+import com.logistics.backend.entity.DeliveryPriority;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Invalid quote items are reported per item and never priced.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeliveryQuoteTest {
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void rejectsNonPositiveWeightAndNegativeDistancePerItem() {
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+
+        List<QuoteResult> results = deliveryService.quote(List.of(
+                item("5.00", "12.00"),
+                item("0", "12.00"),
+                item("5.00", "-3.00"),
+                item("5.00", "0")
+        ), businessUser.getId());
+
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(0).getEstimatedCost()).isPositive();
+        assertThat(results.get(1).getError()).isEqualTo("Weight must be positive");
+        assertThat(results.get(2).getError()).isEqualTo("Estimated km must not be negative");
+        assertThat(results.get(2).getEstimatedCost()).isNull();
+        assertThat(results.get(3).getError()).isNull();
+    }
+
+    private static QuoteItem item(String weight, String estimatedKm) {
+        return new QuoteItem(new BigDecimal(weight), DeliveryPriority.MEDIUM, new BigDecimal(estimatedKm), null, null);
+    }
+}
@@ -0,0 +1,122 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.DeliveryDto;
+import com.logistics.backend.dto.DeliveryPage;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The delivery read paths must cost one Hibernate statement per call, however
+ * many rows come back, and must not hydrate Delivery or User entities. The
+ * archive lookups go through JdbcTemplate and are not counted here.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeliveryReadQueryCountTest {
+
+    private static final int DELIVERIES = 30;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User businessUser;
+
+    private User driver;
+
+    private List<Long> deliveryIds;
+
+    @BeforeEach
+    void createDeliveries() {
+        businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        driver = userRepository.save(TestData.user(UserRole.DRIVER));
+
+        deliveryIds = new ArrayList<>();
+        for (int i = 0; i < DELIVERIES; i++) {
+            DeliveryDto created = deliveryService.createDelivery(TestData.delivery(), businessUser.getId());
+            deliveryIds.add(created.getId());
+            // Half assigned, so both the driver join and the pending listing have rows
+            if (i % 2 == 0) {
+                deliveryService.assignDriver(created.getId(), driver.getId());
+            }
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void businessUserPageIsOneQueryWithoutEntities() {
+        DeliveryPage page = deliveryService.getDeliveriesByBusinessUser(businessUser.getId(), null, DELIVERIES);
+
+        assertThat(page.getItems()).hasSize(DELIVERIES);
+        assertThat(page.getItems()).allSatisfy(dto -> assertThat(dto.getBusinessUser().getEmail())
+                .isEqualTo(businessUser.getEmail()));
+        assertSingleQueryWithoutEntities();
+    }
+
+    @Test
+    void driverPageIsOneQueryWithoutEntities() {
+        DeliveryPage page = deliveryService.getDeliveriesByDriver(driver.getId(), null, DELIVERIES);
+
+        assertThat(page.getItems()).hasSize(DELIVERIES / 2);
+        assertThat(page.getItems()).allSatisfy(dto -> assertThat(dto.getDriver().getId()).isEqualTo(driver.getId()));
+        assertSingleQueryWithoutEntities();
+    }
+
+    @Test
+    void cursorPageIsOneQueryWithoutEntities() {
+        DeliveryPage first = deliveryService.getDeliveriesByBusinessUser(businessUser.getId(), null, 10);
+        statistics.clear();
+
+        DeliveryPage second = deliveryService.getDeliveriesByBusinessUser(
+                businessUser.getId(), first.getNextCursor(), 10);
+
+        assertThat(second.getItems()).hasSize(10);
+        assertSingleQueryWithoutEntities();
+    }
+
+    @Test
+    void singleDeliveryIsOneQueryWithoutEntities() {
+        DeliveryDto delivery = deliveryService.getDeliveryById(deliveryIds.get(0));
+
+        assertThat(delivery.getDriver().getId()).isEqualTo(driver.getId());
+        assertSingleQueryWithoutEntities();
+    }
+
+    @Test
+    void pendingListingIsOneQueryWithoutEntities() {
+        List<DeliveryDto> pending = deliveryService.getPendingDeliveries();
+
+        assertThat(pending).extracting(DeliveryDto::getId).contains(deliveryIds.get(1));
+        assertSingleQueryWithoutEntities();
+    }
+
+    private void assertSingleQueryWithoutEntities() {
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).as("entities loaded").isZero();
+        assertThat(statistics.getEntityFetchCount()).as("entities fetched").isZero();
+    }
+}
@@ -0,0 +1,86 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.dto.DeliveryStats;
+import com.logistics.backend.dto.StatusUpdateRequest;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stats flushes add this instance's deltas to delivery_stats and read back
+ * what other instances added, rather than overwriting them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeliveryStatsServiceTest {
+
+    @Autowired
+    private DeliveryStatsService deliveryStatsService;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void flushAddsLocalDeltasAndPicksUpOtherInstances() {
+        deliveryStatsService.flush();
+        DeliveryStats before = deliveryStatsService.getStats();
+        long pendingRow = statValue("status:PENDING");
+
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        User driver = userRepository.save(TestData.user(UserRole.DRIVER));
+        Long deliveryId = deliveryService.createDelivery(TestData.delivery(), businessUser.getId()).getId();
+        deliveryService.createDelivery(TestData.delivery(), businessUser.getId());
+
+        // Local changes are visible before the flush
+        assertThat(pending(deliveryStatsService.getStats())).isEqualTo(pending(before) + 2);
+
+        // Another instance adds its own delta meanwhile
+        jdbcTemplate.update("update delivery_stats set stat_value = stat_value + 5 where stat_key = 'status:PENDING'");
+
+        deliveryStatsService.flush();
+        assertThat(statValue("status:PENDING")).isEqualTo(pendingRow + 7);
+        assertThat(pending(deliveryStatsService.getStats())).isEqualTo(pending(before) + 7);
+
+        deliveryService.assignDriver(deliveryId, driver.getId());
+        for (DeliveryStatus status : new DeliveryStatus[]{
+                DeliveryStatus.ACCEPTED, DeliveryStatus.ON_WAY, DeliveryStatus.DELIVERED}) {
+            BigDecimal cost = status == DeliveryStatus.DELIVERED ? new BigDecimal("250.75") : null;
+            deliveryService.updateDeliveryStatus(deliveryId, new StatusUpdateRequest(status, null, cost), driver.getId());
+        }
+        deliveryStatsService.flush();
+
+        DeliveryStats after = deliveryStatsService.getStats();
+        assertThat(pending(after)).isEqualTo(pending(before) + 6);
+        assertThat(after.getCountsByStatus().get(DeliveryStatus.DELIVERED))
+                .isEqualTo(before.getCountsByStatus().get(DeliveryStatus.DELIVERED) + 1);
+        assertThat(after.getRevenue()).isEqualByComparingTo(before.getRevenue().add(new BigDecimal("250.75")));
+        assertThat(after.getCompletedByDriver()).containsEntry(driver.getId(), 1L);
+        assertThat(statValue("driver_completed:" + driver.getId())).isEqualTo(1);
+    }
+
+    private static long pending(DeliveryStats stats) {
+        return stats.getCountsByStatus().get(DeliveryStatus.PENDING);
+    }
+
+    private long statValue(String key) {
+        return jdbcTemplate.queryForObject(
+                "select stat_value from delivery_stats where stat_key = ?", Long.class, key);
+    }
+}
@@ -0,0 +1,99 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.entity.DeliveryPriority;
+import com.logistics.backend.entity.DeliveryStatus;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.event.DeliveryEvent;
+import com.logistics.backend.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A client that stops reading blocks the only sender thread; it must be
+ * dropped after the write timeout and the other subscribers keep receiving.
+ */
+@SpringBootTest(properties = {
+        "delivery.stream.sender-threads=1",
+        "delivery.stream.write-timeout-ms=300",
+        "delivery.stream.write-check-ms=100"
+})
+@ActiveProfiles("test")
+class DeliveryStreamStallTest {
+
+    private static final long STALLED_USER_ID = 900_000_001L;
+    private static final long HEALTHY_USER_ID = 900_000_002L;
+
+    @Autowired
+    private DeliveryEventStream deliveryEventStream;
+
+    @Test
+    void stalledSubscriberIsDroppedAndOthersStillReceiveEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stalled = new CountDownLatch(1);
+        BlockingQueue<SseEmitter.SseEventBuilder> received = new LinkedBlockingQueue<>();
+        int before = deliveryEventStream.getSubscriberCount();
+
+        deliveryEventStream.subscribe(user(STALLED_USER_ID), new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                // Like a servlet write to a client whose receive window is full
+                stalled.countDown();
+                boolean interrupted = false;
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        deliveryEventStream.subscribe(user(HEALTHY_USER_ID), new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.add(builder);
+            }
+        });
+
+        try {
+            deliveryEventStream.onDeliveryEvent(event(1L, STALLED_USER_ID));
+            assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+            deliveryEventStream.onDeliveryEvent(event(2L, HEALTHY_USER_ID));
+            assertThat(received.poll(5, TimeUnit.SECONDS)).isNotNull();
+            assertThat(deliveryEventStream.getSubscriberCount()).isEqualTo(before + 1);
+
+            // The replacement thread keeps serving while the stuck write is still blocked
+            deliveryEventStream.onDeliveryEvent(event(3L, HEALTHY_USER_ID));
+            assertThat(received.poll(5, TimeUnit.SECONDS)).isNotNull();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static AuthenticatedUser user(long id) {
+        return new AuthenticatedUser(id, "stream" + id + "@example.com", UserRole.BUSINESS_USER,
+                Instant.now().plusSeconds(3600));
+    }
+
+    private static DeliveryEvent event(Long deliveryId, Long businessUserId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new DeliveryEvent(DeliveryEvent.Type.STATUS_CHANGED, deliveryId, businessUserId, null,
+                DeliveryPriority.MEDIUM, DeliveryStatus.PENDING, DeliveryStatus.CANCELLED, null, now, now);
+    }
+}
@@ -0,0 +1,115 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rotation and reuse detection, including the grace window for browser tabs
+ * that share one refresh token and refresh at the same moment.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    private static final int TABS = 4;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+    }
+
+    @Test
+    void tabsRefreshingWithTheSameTokenAtOnceAllSucceed() throws Exception {
+        String token = refreshTokenService.issue(user.getId());
+        String otherDevice = refreshTokenService.issue(user.getId());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService tabs = Executors.newFixedThreadPool(TABS);
+        try {
+            List<Future<Optional<Long>>> refreshes = new ArrayList<>();
+            for (int i = 0; i < TABS; i++) {
+                refreshes.add(tabs.submit(() -> {
+                    start.await();
+                    return refreshTokenService.consume(token);
+                }));
+            }
+            start.countDown();
+            for (Future<Optional<Long>> refresh : refreshes) {
+                assertThat(refresh.get(10, TimeUnit.SECONDS)).contains(user.getId());
+            }
+        } finally {
+            tabs.shutdownNow();
+        }
+
+        // Rotated exactly once, and nothing else of the user's was revoked
+        assertThat(jdbcTemplate.queryForObject("select count(*) from refresh_tokens " +
+                "where user_id = ? and rotated_at is not null", Long.class, user.getId())).isEqualTo(1);
+        assertThat(refreshTokenService.consume(otherDevice)).contains(user.getId());
+    }
+
+    @Test
+    void reuseAfterTheGraceWindowRevokesEverything() {
+        String token = refreshTokenService.issue(user.getId());
+        String otherDevice = refreshTokenService.issue(user.getId());
+        assertThat(refreshTokenService.consume(token)).contains(user.getId());
+
+        jdbcTemplate.update("update refresh_tokens set rotated_at = dateadd('MINUTE', -1, rotated_at), " +
+                "revoked_at = dateadd('MINUTE', -1, revoked_at) where user_id = ? and rotated_at is not null",
+                user.getId());
+
+        assertThat(refreshTokenService.consume(token)).isEmpty();
+        assertThat(refreshTokenService.consume(otherDevice)).isEmpty();
+    }
+
+    @Test
+    void logoutEndsTheGraceWindow() {
+        String token = refreshTokenService.issue(user.getId());
+        assertThat(refreshTokenService.consume(token)).contains(user.getId());
+        String successor = refreshTokenService.issue(user.getId());
+
+        refreshTokenService.revoke(successor);
+
+        assertThat(refreshTokenService.consume(token)).isEmpty();
+    }
+
+    @Test
+    void aLoggedOutTokenGetsNoGrace() {
+        String token = refreshTokenService.issue(user.getId());
+        String otherDevice = refreshTokenService.issue(user.getId());
+
+        refreshTokenService.revoke(token);
+
+        assertThat(refreshTokenService.consume(token)).isEmpty();
+        assertThat(refreshTokenService.consume(otherDevice)).isEmpty();
+    }
+}
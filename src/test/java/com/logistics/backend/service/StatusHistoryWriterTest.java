@@ -0,0 +1,129 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A row the database rejects (here a delivery id that does not exist) must
+ * not hold back the rows around it, on flush or on spool replay, and must end
+ * up in quarantine instead of being replayed forever.
+ */
+@SpringBootTest(properties = {
+        "status-history.spool-file=target/status-history-writer-test.spool",
+        "status-history.max-replay-attempts=2"
+})
+@ActiveProfiles("test")
+class StatusHistoryWriterTest {
+
+    private static final Path SPOOL = Paths.get("target/status-history-writer-test.spool");
+    private static final Path QUARANTINE = Paths.get("target/status-history-writer-test.spool.quarantine");
+    private static final long MISSING_DELIVERY_ID = 999_999_999L;
+
+    @Autowired
+    private StatusHistoryWriter writer;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    private Long deliveryId;
+
+    @BeforeEach
+    void createDelivery() throws IOException {
+        Files.deleteIfExists(SPOOL);
+        Files.deleteIfExists(QUARANTINE);
+        User businessUser = userRepository.save(TestData.user(UserRole.BUSINESS_USER));
+        userId = businessUser.getId();
+        deliveryId = deliveryService.createDelivery(TestData.delivery(), userId).getId();
+        writer.flush();
+    }
+
+    @Test
+    void flushWritesGoodRowsAndSpoolsOnlyTheBadOne() throws IOException {
+        long before = historyRows();
+
+        writer.enqueue(record(deliveryId));
+        writer.enqueue(record(MISSING_DELIVERY_ID));
+        writer.enqueue(record(deliveryId));
+        writer.flush();
+
+        assertThat(historyRows() - before).isEqualTo(2);
+        List<String> spooled = Files.readAllLines(SPOOL, StandardCharsets.UTF_8);
+        assertThat(spooled).hasSize(1);
+        assertThat(spooled.get(0)).startsWith(MISSING_DELIVERY_ID + ",");
+    }
+
+    @Test
+    void replayKeepsOnlyUnwrittenRowsAndQuarantinesRepeatFailures() throws IOException {
+        long before = historyRows();
+        LocalDateTime changedAt = LocalDateTime.now().withNano(0);
+        Files.write(SPOOL, List.of(
+                // Five fields: a spool written before attempts were tracked
+                deliveryId + ",PENDING,CANCELLED," + userId + "," + changedAt,
+                MISSING_DELIVERY_ID + ",PENDING,CANCELLED," + userId + "," + changedAt + ",0",
+                deliveryId + ",CANCELLED,PENDING," + userId + "," + changedAt + ",0"
+        ), StandardCharsets.UTF_8);
+
+        writer.replaySpool();
+
+        assertThat(historyRows() - before).isEqualTo(2);
+        List<String> kept = Files.readAllLines(SPOOL, StandardCharsets.UTF_8);
+        assertThat(kept).hasSize(1);
+        assertThat(kept.get(0)).startsWith(MISSING_DELIVERY_ID + ",").endsWith(",1");
+
+        writer.replaySpool();
+
+        // The rows written by the first replay are not written again
+        assertThat(historyRows() - before).isEqualTo(2);
+        assertThat(SPOOL).doesNotExist();
+        List<String> quarantined = Files.readAllLines(QUARANTINE, StandardCharsets.UTF_8);
+        assertThat(quarantined).hasSize(1);
+        assertThat(quarantined.get(0)).startsWith(MISSING_DELIVERY_ID + ",").endsWith(",2");
+    }
+
+    @Test
+    void replayCountsAttemptsPerSpooledLineEvenForEqualRows() throws IOException {
+        LocalDateTime changedAt = LocalDateTime.now().withNano(0);
+        String row = MISSING_DELIVERY_ID + ",PENDING,CANCELLED," + userId + "," + changedAt;
+        Files.write(SPOOL, List.of(row + ",0", row + ",1"), StandardCharsets.UTF_8);
+
+        writer.replaySpool();
+
+        assertThat(Files.readAllLines(SPOOL, StandardCharsets.UTF_8)).containsExactly(row + ",1");
+        assertThat(Files.readAllLines(QUARANTINE, StandardCharsets.UTF_8)).containsExactly(row + ",2");
+    }
+
+    private StatusHistoryRecord record(Long deliveryId) {
+        return new StatusHistoryRecord(deliveryId, "PENDING", "CANCELLED", userId, LocalDateTime.now());
+    }
+
+    private long historyRows() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from status_history where delivery_id = ?", Long.class, deliveryId);
+    }
+}
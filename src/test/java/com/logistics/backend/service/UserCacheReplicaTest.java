@@ -0,0 +1,78 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With a read replica that has not applied a deactivation yet, the user
+ * caches must still only ever hold what the primary has: a read-only lookup
+ * that misses the cache must not put the replica's stale row there for the
+ * isActive checks and logins that trust it.
+ */
+@SpringBootTest(properties = {
+        "replica.datasource.urls=" + UserCacheReplicaTest.REPLICA_URL,
+        "replica.datasource.username=sa",
+        "replica.datasource.password=",
+        // The replica here never receives heartbeats
+        "replica.max-lag-ms=" + Long.MAX_VALUE
+})
+@ActiveProfiles("test")
+class UserCacheReplicaTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:user-cache-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @BeforeAll
+    static void createReplica() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("create table if not exists users (id bigint not null, created_at datetime(6) not null, " +
+                "email varchar(255) not null, full_name varchar(255) not null, is_active bit not null, " +
+                "password varchar(255) not null, phone_number varchar(255), role varchar(255) not null, " +
+                "updated_at datetime(6), primary key (id))");
+        replica.execute("create table if not exists replica_heartbeat (id int not null, " +
+                "beat_at datetime(6) not null, primary key (id))");
+        replica.execute("merge into replica_heartbeat (id, beat_at) key (id) values (1, current_timestamp(6))");
+    }
+
+    @Test
+    void readOnlyLookupsDoNotCacheTheReplicasStaleRow() {
+        User driver = userRepository.save(TestData.user(UserRole.DRIVER));
+        copyToReplica(driver);
+
+        userService.deactivateUser(driver.getId());
+
+        // The replica still says active; the read-only lookup misses the cache
+        assertThat(userService.getUserById(driver.getId()).getIsActive()).isFalse();
+        assertThat(userService.getUserEntityById(driver.getId()).getIsActive()).isFalse();
+        assertThat(userDetailsService.loadUserByUsername(driver.getEmail()).isEnabled()).isFalse();
+    }
+
+    private static void copyToReplica(User user) {
+        replica.update("insert into users (id, created_at, email, full_name, is_active, password, phone_number, " +
+                        "role, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                user.getId(), user.getCreatedAt(), user.getEmail(), user.getFullName(), user.getIsActive(),
+                user.getPassword(), user.getPhoneNumber(), user.getRole().name(), user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,42 @@
+package com.logistics.backend.service;
+
+import com.logistics.backend.TestData;
+import com.logistics.backend.entity.User;
+import com.logistics.backend.entity.UserRole;
+import com.logistics.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cached users are shared between threads, so writes must go through a copy
+ * and replace the cache entry instead of changing the cached instance.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void deactivationDoesNotMutateTheCachedInstance() {
+        Long id = userRepository.save(TestData.user(UserRole.DRIVER)).getId();
+        User cached = userService.getUserEntityById(id);
+        assertThat(userService.getUserEntityById(id)).isSameAs(cached);
+
+        userService.deactivateUser(id);
+
+        assertThat(cached.getIsActive()).isTrue();
+        User reloaded = userService.getUserEntityById(id);
+        assertThat(reloaded).isNotSameAs(cached);
+        assertThat(reloaded.getIsActive()).isFalse();
+        assertThat(userService.getUserByEmail(cached.getEmail()).getIsActive()).isFalse();
+    }
+}